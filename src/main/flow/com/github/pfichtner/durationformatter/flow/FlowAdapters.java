@@ -0,0 +1,203 @@
+package com.github.pfichtner.durationformatter.flow;
+
+import com.github.pfichtner.durationformatter.Flow;
+import com.github.pfichtner.durationformatter.FormattingProcessor;
+
+/**
+ * Bridges the {@link Flow} interfaces of this library (e.g. the
+ * {@link FormattingProcessor}) and the ones of
+ * <code>java.util.concurrent.Flow</code>. Since both have the same contract
+ * each adapter just delegates each call (requires Java 9, the core library
+ * does not).
+ *
+ * @author Peter Fichtner
+ */
+public final class FlowAdapters {
+
+	private FlowAdapters() {
+		super();
+	}
+
+	/**
+	 * Returns a <code>java.util.concurrent.Flow.Publisher</code> delegating to
+	 * the passed Publisher.
+	 */
+	public static <T> java.util.concurrent.Flow.Publisher<T> toFlowPublisher(
+			final Flow.Publisher<T> publisher) {
+		return new java.util.concurrent.Flow.Publisher<T>() {
+			public void subscribe(
+					java.util.concurrent.Flow.Subscriber<? super T> subscriber) {
+				publisher.subscribe(toSubscriber(subscriber));
+			}
+		};
+	}
+
+	/**
+	 * Returns a {@link Flow.Publisher} delegating to the passed
+	 * <code>java.util.concurrent.Flow.Publisher</code>.
+	 */
+	public static <T> Flow.Publisher<T> toPublisher(
+			final java.util.concurrent.Flow.Publisher<T> publisher) {
+		return new Flow.Publisher<T>() {
+			public void subscribe(Flow.Subscriber<? super T> subscriber) {
+				publisher.subscribe(toFlowSubscriber(subscriber));
+			}
+		};
+	}
+
+	/**
+	 * Returns a <code>java.util.concurrent.Flow.Subscriber</code> delegating
+	 * to the passed Subscriber.
+	 */
+	public static <T> java.util.concurrent.Flow.Subscriber<T> toFlowSubscriber(
+			final Flow.Subscriber<T> subscriber) {
+		return new java.util.concurrent.Flow.Subscriber<T>() {
+
+			public void onSubscribe(
+					java.util.concurrent.Flow.Subscription subscription) {
+				subscriber.onSubscribe(toSubscription(subscription));
+			}
+
+			public void onNext(T item) {
+				subscriber.onNext(item);
+			}
+
+			public void onError(Throwable throwable) {
+				subscriber.onError(throwable);
+			}
+
+			public void onComplete() {
+				subscriber.onComplete();
+			}
+
+		};
+	}
+
+	/**
+	 * Returns a {@link Flow.Subscriber} delegating to the passed
+	 * <code>java.util.concurrent.Flow.Subscriber</code>.
+	 */
+	public static <T> Flow.Subscriber<T> toSubscriber(
+			final java.util.concurrent.Flow.Subscriber<T> subscriber) {
+		return new Flow.Subscriber<T>() {
+
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscriber.onSubscribe(toFlowSubscription(subscription));
+			}
+
+			public void onNext(T item) {
+				subscriber.onNext(item);
+			}
+
+			public void onError(Throwable throwable) {
+				subscriber.onError(throwable);
+			}
+
+			public void onComplete() {
+				subscriber.onComplete();
+			}
+
+		};
+	}
+
+	/**
+	 * Returns a <code>java.util.concurrent.Flow.Processor</code> delegating to
+	 * the passed Processor, e.g. to place a {@link FormattingProcessor}
+	 * between a <code>java.util.concurrent.SubmissionPublisher</code> and its
+	 * subscribers.
+	 */
+	public static <T, R> java.util.concurrent.Flow.Processor<T, R> toFlowProcessor(
+			final Flow.Processor<T, R> processor) {
+		final java.util.concurrent.Flow.Subscriber<T> subscriber = toFlowSubscriber(processor);
+		final java.util.concurrent.Flow.Publisher<R> publisher = toFlowPublisher(processor);
+		return new java.util.concurrent.Flow.Processor<T, R>() {
+
+			public void subscribe(
+					java.util.concurrent.Flow.Subscriber<? super R> downstream) {
+				publisher.subscribe(downstream);
+			}
+
+			public void onSubscribe(
+					java.util.concurrent.Flow.Subscription subscription) {
+				subscriber.onSubscribe(subscription);
+			}
+
+			public void onNext(T item) {
+				subscriber.onNext(item);
+			}
+
+			public void onError(Throwable throwable) {
+				subscriber.onError(throwable);
+			}
+
+			public void onComplete() {
+				subscriber.onComplete();
+			}
+
+		};
+	}
+
+	/**
+	 * Returns a {@link Flow.Processor} delegating to the passed
+	 * <code>java.util.concurrent.Flow.Processor</code>.
+	 */
+	public static <T, R> Flow.Processor<T, R> toProcessor(
+			final java.util.concurrent.Flow.Processor<T, R> processor) {
+		final Flow.Subscriber<T> subscriber = toSubscriber(processor);
+		final Flow.Publisher<R> publisher = toPublisher(processor);
+		return new Flow.Processor<T, R>() {
+
+			public void subscribe(Flow.Subscriber<? super R> downstream) {
+				publisher.subscribe(downstream);
+			}
+
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscriber.onSubscribe(subscription);
+			}
+
+			public void onNext(T item) {
+				subscriber.onNext(item);
+			}
+
+			public void onError(Throwable throwable) {
+				subscriber.onError(throwable);
+			}
+
+			public void onComplete() {
+				subscriber.onComplete();
+			}
+
+		};
+	}
+
+	private static java.util.concurrent.Flow.Subscription toFlowSubscription(
+			final Flow.Subscription subscription) {
+		return new java.util.concurrent.Flow.Subscription() {
+
+			public void request(long n) {
+				subscription.request(n);
+			}
+
+			public void cancel() {
+				subscription.cancel();
+			}
+
+		};
+	}
+
+	private static Flow.Subscription toSubscription(
+			final java.util.concurrent.Flow.Subscription subscription) {
+		return new Flow.Subscription() {
+
+			public void request(long n) {
+				subscription.request(n);
+			}
+
+			public void cancel() {
+				subscription.cancel();
+			}
+
+		};
+	}
+
+}
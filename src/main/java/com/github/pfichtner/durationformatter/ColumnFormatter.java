@@ -0,0 +1,104 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+/**
+ * Formats columns (e.g. of a table) so all values of a column use the same
+ * units. The values are scanned once to find the greatest unit needed (but
+ * not greater than the maximum of the base Builder), the column is then
+ * formatted by a formatter derived from the base Builder using this unit as
+ * maximum. The minimum is the one of the base Builder or, if the base
+ * Builder limits the amount of units to show, as many units below the
+ * maximum as allowed. Zeros are never suppressed, so all rows show the same
+ * units. The derived formatters are built once per range and reused for all
+ * following columns. Instances are threadsafe.
+ * 
+ * @author Peter Fichtner
+ */
+public class ColumnFormatter {
+
+	private final Builder builder;
+	private final int idxMin;
+	private final int idxMax;
+	private final int units;
+
+	/**
+	 * derived formatters indexed by idxMin * size + idxMax
+	 */
+	private final AtomicReferenceArray<DurationFormatter> formatters = new AtomicReferenceArray<DurationFormatter>(
+			TimeUnits.size() * TimeUnits.size());
+
+	public ColumnFormatter(Builder builder) {
+		this.builder = builder;
+		this.idxMin = TimeUnits.indexOf(builder.getMinimum());
+		this.idxMax = builder.isWeeks() ? TimeUnits.WEEKS : TimeUnits
+				.indexOf(builder.getMaximum());
+		int limit = builder.getMaximumAmountOfUnitsToShow();
+		this.units = limit > 0 ? limit : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Formats all passed values using the same units.
+	 * 
+	 * @param values
+	 *            the durations to format
+	 * @param timeUnit
+	 *            the TimeUnit of all <code>values</code>
+	 * @return Strings containing the durations (same order as
+	 *         <code>values</code>)
+	 */
+	public String[] format(long[] values, TimeUnit timeUnit) {
+		return DurationFormatters.format(formatterFor(values, timeUnit),
+				values, timeUnit);
+	}
+
+	/**
+	 * Returns the formatter used to format the passed values.
+	 * 
+	 * @param values
+	 *            the durations to format
+	 * @param timeUnit
+	 *            the TimeUnit of all <code>values</code>
+	 * @return formatter using the same units for all <code>values</code>
+	 */
+	public DurationFormatter formatterFor(long[] values, TimeUnit timeUnit) {
+		long greatest = 0;
+		for (long value : values) {
+			// MIN_VALUE stays negative, treat it as MAX_VALUE
+			long abs = value == Long.MIN_VALUE ? Long.MAX_VALUE : Math
+					.abs(value);
+			greatest = Math.max(greatest, abs);
+		}
+		int max = this.idxMin;
+		while (max > this.idxMax
+				&& timeUnit.toNanos(greatest) >= TimeUnits.nanos(max - 1)) {
+			max--;
+		}
+		int min = (int) Math.min(this.idxMin, (long) max + this.units - 1);
+		return formatter(min, max);
+	}
+
+	private DurationFormatter formatter(int min, int max) {
+		int idx = min * TimeUnits.size() + max;
+		DurationFormatter formatter = this.formatters.get(idx);
+		if (formatter == null) {
+			Builder builder = this.builder.minimum(TimeUnits.timeUnit(min));
+			this.formatters.compareAndSet(
+					idx,
+					null,
+					(max == TimeUnits.WEEKS ? builder.weeks(true) : builder
+							.maximum(TimeUnits.timeUnit(max)))
+							.suppressZeros(EnumSet.noneOf(SuppressZeros.class))
+							.maximumAmountOfUnitsToShow(Integer.MAX_VALUE)
+							.build());
+			formatter = this.formatters.get(idx);
+		}
+		return formatter;
+	}
+
+}
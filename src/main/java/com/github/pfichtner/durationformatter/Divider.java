@@ -0,0 +1,35 @@
+package com.github.pfichtner.durationformatter;
+
+/**
+ * Divides non-negative longs by an invariant divisor. This is the plain
+ * implementation for the baseline, the multi-release jar contains one for
+ * newer JDKs (<code>src/main/java9</code>) that replaces the division by a
+ * multiplication with the reciprocal of the divisor. Both implementations
+ * have to provide the same (package-private) members.
+ * 
+ * @author Peter Fichtner
+ */
+final class Divider {
+
+	private final long divisor;
+
+	Divider(long divisor) {
+		this.divisor = divisor;
+	}
+
+	long divisor() {
+		return this.divisor;
+	}
+
+	/**
+	 * Returns <code>dividend / divisor</code>.
+	 * 
+	 * @param dividend
+	 *            the dividend, must not be negative
+	 * @return the quotient
+	 */
+	long divide(long dividend) {
+		return dividend / this.divisor;
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+
+/**
+ * Sums up durations per key (e.g. per endpoint or tenant) from many threads
+ * and renders the totals using a {@link DurationFormatter}. Each key has
+ * {@link LongAdder}s so concurrent updates do not all compete for one cache
+ * line. Totals are kept as whole seconds plus the nanoseconds below a second
+ * so durations shorter than the minimum of the formatter are not lost and
+ * totals far beyond the range of a nanosecond long (about 292 years) are
+ * summed up correctly, they are converted once when read or rendered.
+ * Instances are threadsafe, totals read while values are added are not
+ * atomic snapshots.
+ * 
+ * @author Peter Fichtner
+ */
+public class DurationAccumulator<K> {
+
+	private static final long NANOS_PER_SECOND = SECONDS.toNanos(1);
+
+	private static class Cells {
+
+		/**
+		 * whole seconds (wraps beyond {@link Long#MAX_VALUE} seconds, about
+		 * 292 billion years)
+		 */
+		private final LongAdder seconds = new LongAdder();
+		/**
+		 * the part below a second of each value added, carried into the
+		 * seconds when read
+		 */
+		private final LongAdder nanos = new LongAdder();
+
+		public void add(long value, TimeUnit timeUnit) {
+			long seconds = timeUnit.toSeconds(value);
+			this.seconds.add(seconds);
+			if (timeUnit.compareTo(SECONDS) < 0) {
+				this.nanos.add(timeUnit.toNanos(value
+						- timeUnit.convert(seconds, SECONDS)));
+			}
+		}
+
+		/**
+		 * Returns the total in the passed unit, truncated and saturating at
+		 * {@link Long#MAX_VALUE} and {@link Long#MIN_VALUE} (like
+		 * {@link TimeUnit#convert(long, TimeUnit)} does).
+		 */
+		public long sum(TimeUnit timeUnit) {
+			long nanos = this.nanos.sum();
+			long seconds = this.seconds.sum() + nanos / NANOS_PER_SECOND;
+			nanos %= NANOS_PER_SECOND;
+			// same sign for both parts so each can be truncated on its own
+			if (seconds > 0 && nanos < 0) {
+				seconds--;
+				nanos += NANOS_PER_SECOND;
+			} else if (seconds < 0 && nanos > 0) {
+				seconds++;
+				nanos -= NANOS_PER_SECOND;
+			}
+			return saturatedAdd(timeUnit.convert(seconds, SECONDS),
+					timeUnit.convert(nanos, NANOSECONDS));
+		}
+
+	}
+
+	/**
+	 * Adds the passed values saturating at {@link Long#MAX_VALUE} and
+	 * {@link Long#MIN_VALUE}.
+	 */
+	private static long saturatedAdd(long a, long b) {
+		long sum = a + b;
+		// overflow if both have the same sign and the sum has the other one
+		return ((a ^ sum) & (b ^ sum)) < 0 ? a < 0 ? Long.MIN_VALUE
+				: Long.MAX_VALUE : sum;
+	}
+
+	private final ConcurrentMap<K, Cells> cells = new ConcurrentHashMap<K, Cells>();
+	private final DurationFormatter formatter;
+	private final TimeUnit timeUnit;
+
+	/**
+	 * Creates a new accumulator.
+	 * 
+	 * @param builder
+	 *            the Builder of the formatter to render the totals, its
+	 *            minimum is the unit of {@link #sum(Object)}
+	 */
+	public DurationAccumulator(Builder builder) {
+		this.formatter = builder.build();
+		this.timeUnit = builder.getMinimum();
+	}
+
+	/**
+	 * Adds a duration to the total of the passed key.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the duration to add
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 */
+	public void add(K key, long value, TimeUnit timeUnit) {
+		cells(key).add(value, timeUnit);
+	}
+
+	private Cells cells(K key) {
+		Cells cells = this.cells.get(key);
+		if (cells == null) {
+			Cells newCells = new Cells();
+			cells = this.cells.putIfAbsent(key, newCells);
+			cells = cells == null ? newCells : cells;
+		}
+		return cells;
+	}
+
+	/**
+	 * Returns the total of the passed key.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the total in the unit of this accumulator, truncated (0 for
+	 *         unknown keys)
+	 * @see #getTimeUnit()
+	 */
+	public long sum(K key) {
+		Cells cells = this.cells.get(key);
+		return cells == null ? 0 : cells.sum(this.timeUnit);
+	}
+
+	/**
+	 * Returns the total of the passed key in nanoseconds.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the total in nanoseconds (0 for unknown keys), saturating at
+	 *         {@link Long#MAX_VALUE} and {@link Long#MIN_VALUE}
+	 */
+	public long sumNanos(K key) {
+		Cells cells = this.cells.get(key);
+		return cells == null ? 0 : cells.sum(NANOSECONDS);
+	}
+
+	/**
+	 * Returns the unit of {@link #sum(Object)}, the minimum of the formatter.
+	 * 
+	 * @return the TimeUnit of the totals
+	 */
+	public TimeUnit getTimeUnit() {
+		return this.timeUnit;
+	}
+
+	/**
+	 * Renders the totals of all keys (in no particular order) in one pass,
+	 * each as key, <code>keySeparator</code>, formatted total and
+	 * <code>lineSeparator</code>.
+	 * 
+	 * @param appendable
+	 *            the Appendable to render to
+	 * @param keySeparator
+	 *            the String between key and total
+	 * @param lineSeparator
+	 *            the String after each total
+	 * @return the passed Appendable
+	 * @throws IOException
+	 *             if the Appendable throws one
+	 */
+	public <A extends Appendable> A snapshotTo(A appendable,
+			String keySeparator, String lineSeparator) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		TimeValues timeValues = new TimeValues();
+		for (Entry<K, Cells> entry : this.cells.entrySet()) {
+			sb.append(entry.getKey()).append(keySeparator);
+			// the finest unit the total fits into so the formatter rounds
+			Cells cells = entry.getValue();
+			TimeUnit timeUnit = NANOSECONDS;
+			long total = cells.sum(timeUnit);
+			while ((total == Long.MAX_VALUE || total == Long.MIN_VALUE)
+					&& timeUnit != SECONDS) {
+				timeUnit = TimeUnit.values()[timeUnit.ordinal() + 1];
+				total = cells.sum(timeUnit);
+			}
+			DurationFormatters.formatTo(this.formatter, sb, timeValues, total,
+					timeUnit).append(lineSeparator);
+		}
+		appendable.append(sb);
+		return appendable;
+	}
+
+}
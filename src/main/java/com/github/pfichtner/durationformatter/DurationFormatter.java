@@ -8,20 +8,25 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import java.io.File;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
 import java.text.Format;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.github.pfichtner.durationformatter.TimeValues.Bucket;
 
@@ -43,7 +48,17 @@ public interface DurationFormatter {
 		}
 
 		public Strategy build() {
-			return new ComposedStrategy(this.strategies);
+			for (Strategy strategy : this.strategies) {
+				if (!(strategy instanceof ColumnStrategy)) {
+					return new ComposedStrategy(this.strategies);
+				}
+			}
+			return new ComposedColumnStrategy(this.strategies);
+		}
+
+		public Strategy build(ExplainListener listener) {
+			return listener == null ? build() : new ExplainingStrategy(
+					this.strategies, listener);
 		}
 
 	}
@@ -60,9 +75,29 @@ public interface DurationFormatter {
 
 	}
 
+	/**
+	 * A {@link Strategy} that can also be applied to many decomposed values at
+	 * once, see {@link TimeValues#decompose(long[], TimeUnit, TimeUnit, boolean[])}.
+	 * Each row of the columns is left in the state {@link #apply(TimeValues)}
+	 * leaves the TimeValues of this row in.
+	 */
+	static interface ColumnStrategy extends Strategy {
+
+		/**
+		 * @param columns
+		 *            the values indexed by bucket position and row (no
+		 *            <code>null</code> columns)
+		 * @param visible
+		 *            the visibility per row, bit <code>i</code> is set if
+		 *            the bucket at position <code>i</code> is visible
+		 */
+		void apply(long[][] columns, int[] visible);
+
+	}
+
 	static class ComposedStrategy implements Strategy {
 
-		private List<Strategy> strategies;
+		protected final List<Strategy> strategies;
 
 		ComposedStrategy(List<Strategy> strategies) {
 			this.strategies = strategies;
@@ -78,10 +113,159 @@ public interface DurationFormatter {
 
 	}
 
+	static class ComposedColumnStrategy extends ComposedStrategy implements
+			ColumnStrategy {
+
+		ComposedColumnStrategy(List<Strategy> strategies) {
+			super(strategies);
+		}
+
+		public void apply(long[][] columns, int[] visible) {
+			for (Strategy strategy : this.strategies) {
+				((ColumnStrategy) strategy).apply(columns, visible);
+			}
+		}
+
+	}
+
+	/**
+	 * Composed strategy informing an {@link ExplainListener} about each step.
+	 * Only used if a listener is configured, so formatters that do not
+	 * explain run the plain {@link ComposedStrategy} without any checks.
+	 */
+	static class ExplainingStrategy implements Strategy {
+
+		private final Strategy[] strategies;
+		private final String[] names;
+		private final ExplainListener listener;
+
+		ExplainingStrategy(List<Strategy> strategies, ExplainListener listener) {
+			this.strategies = strategies.toArray(new Strategy[strategies
+					.size()]);
+			this.names = new String[this.strategies.length];
+			for (int i = 0; i < this.names.length; i++) {
+				String name = this.strategies[i].getClass().getSimpleName();
+				this.names[i] = name.endsWith("Strategy") ? name.substring(0,
+						name.length() - "Strategy".length()) : name;
+			}
+			this.listener = listener;
+		}
+
+		public TimeValues apply(TimeValues values) {
+			this.listener.begin(values);
+			TimeValues result = values;
+			for (int i = 0; i < this.strategies.length; i++) {
+				long start = System.nanoTime();
+				result = this.strategies[i].apply(result);
+				this.listener.step(this.names[i], System.nanoTime() - start,
+						result);
+			}
+			return result;
+		}
+
+	}
+
 	public enum SuppressZeros {
 		LEADING, TRAILING, MIDDLE
 	}
 
+	/**
+	 * The engines a {@link DurationFormatter} can be built with, see
+	 * {@link Builder#engine(Engine)}.
+	 */
+	public enum Engine {
+		/**
+		 * Renders all values using the java.text Formats created by the
+		 * FormatGenerators. The Formats allocate (at least a FieldPosition per
+		 * unit) on each call.
+		 */
+		REFERENCE,
+		/**
+		 * Uses optimized paths wherever the configuration allows them and
+		 * falls back to the {@link #REFERENCE} engine otherwise. Each
+		 * optimized path is checked against the reference output when the
+		 * formatter is built. Only the optimized paths format without
+		 * allocating when used with a reused TimeValues, see
+		 * {@link DurationFormatters#formatTo(DurationFormatter, StringBuilder, TimeValues, long, TimeUnit)}.
+		 */
+		FAST
+	}
+
+	/**
+	 * Callback informed about differences between the {@link Engine#REFERENCE}
+	 * and the configured engine, see
+	 * {@link Builder#verify(int, MismatchListener)}.
+	 */
+	public interface MismatchListener {
+
+		/**
+		 * Called when the reference and the configured engine produced
+		 * different Strings for the same duration.
+		 * 
+		 * @param value
+		 *            the duration formatted
+		 * @param timeUnit
+		 *            the TimeUnit of <code>value</code>
+		 * @param expected
+		 *            the String produced by the reference engine (which is
+		 *            the one returned to the caller)
+		 * @param actual
+		 *            the String produced by the configured engine
+		 */
+		void mismatch(long value, TimeUnit timeUnit, String expected,
+				String actual);
+
+	}
+
+	/**
+	 * Callback informed about each step of the strategies of a formatter, see
+	 * {@link Builder#explain(ExplainListener)}. The TimeValues passed are
+	 * the ones being formatted, they must neither be modified nor kept after
+	 * returning. Listeners have to be threadsafe if the formatter is used by
+	 * more than one thread.
+	 */
+	public interface ExplainListener {
+
+		/**
+		 * Called before the first step.
+		 * 
+		 * @param values
+		 *            the decomposed duration
+		 */
+		void begin(TimeValues values);
+
+		/**
+		 * Called after each step.
+		 * 
+		 * @param strategy
+		 *            the name of the step (e.g. <code>PollFromLeft</code>)
+		 * @param elapsedNanos
+		 *            the nanoseconds the step took
+		 * @param values
+		 *            the state (values and visibility) after the step
+		 */
+		void step(String strategy, long elapsedNanos, TimeValues values);
+
+	}
+
+	/**
+	 * Callback informed about the latencies measured when warming up a
+	 * formatter, see {@link Builder#warmUp(int, WarmUpListener)}.
+	 */
+	public interface WarmUpListener {
+
+		/**
+		 * Called when the warm-up is done.
+		 * 
+		 * @param firstCallNanos
+		 *            the duration of the first call of the formatter
+		 * @param steadyStateNanos
+		 *            the average duration of a call after warming up
+		 */
+		void warmedUp(long firstCallNanos, long steadyStateNanos);
+
+	}
+
 	/**
 	 * Default instance, for format-string see {@link Builder#DIGITS}.
 	 */
@@ -121,12 +305,168 @@ public interface DurationFormatter {
 	 */
 	public static class Builder implements Cloneable {
 
+		private static final FormatterEvents EVENTS = FormatterEvents.INSTANCE;
+
 		private static interface FormatGenerator {
-			Format generate(FormatGenerators formatGenerators);
+			Format generate(FormatGenerators formatGenerators, Locale locale);
+		}
+
+		/**
+		 * A Format created for a pattern and a locale. Parsing a
+		 * pattern is much more expensive than cloning the Format created, so
+		 * the Formats needed by each formatter built are cloned from the
+		 * prototype as long as the pattern does not change. Prototypes of
+		 * the same pattern for other locales are linked (up to
+		 * {@link #LOCALES}), so formatters built with alternating default
+		 * locales (e.g. per request) do not parse the pattern again.
+		 */
+		private static final class Prototype {
+
+			private static final int LOCALES = 4;
+
+			private final Locale locale;
+			private final String pattern;
+			private final Format format;
+			private final Prototype next;
+
+			/**
+			 * @param others
+			 *            the prototypes created so far, the ones of the same
+			 *            pattern are kept
+			 */
+			Prototype(Locale locale, String pattern, Format format,
+					Prototype others) {
+				this.locale = locale;
+				this.pattern = pattern;
+				this.format = format;
+				this.next = others != null && others.pattern.equals(pattern) ? others
+						.limit(LOCALES - 1) : null;
+			}
+
+			private Prototype(Prototype prototype, Prototype next) {
+				this.locale = prototype.locale;
+				this.pattern = prototype.pattern;
+				this.format = prototype.format;
+				this.next = next;
+			}
+
+			private Prototype limit(int size) {
+				return size <= 0 ? null : this.next == null ? this
+						: new Prototype(this, this.next.limit(size - 1));
+			}
+
+			/**
+			 * Returns the prototype of the passed locale and pattern linked
+			 * to the passed one or <code>null</code> if there is none.
+			 */
+			static Prototype find(Prototype prototype, Locale locale,
+					String pattern) {
+				for (Prototype p = prototype; p != null; p = p.next) {
+					if (p.locale.equals(locale) && p.pattern.equals(pattern)) {
+						return p;
+					}
+				}
+				return null;
+			}
+
+			Format copy() {
+				return (Format) this.format.clone();
+			}
+
+			static Locale locale() {
+				return Locale.getDefault(Locale.Category.FORMAT);
+			}
+
 		}
 
 		private static abstract class AbstractFormatGenerator implements
 				FormatGenerator {
+
+			// racy on purpose, Prototypes are immutable
+			private Prototype prototype;
+
+			/**
+			 * Returns a copy of the Format for the passed pattern and locale,
+			 * the Format itself is created only if the pattern (or the
+			 * locale) changed since the last call.
+			 */
+			protected Format copyOf(String pattern, Locale locale) {
+				Prototype prototype = Prototype.find(this.prototype, locale,
+						pattern);
+				if (prototype == null) {
+					this.prototype = prototype = new Prototype(locale,
+							pattern, create(pattern, locale), this.prototype);
+				}
+				return prototype.copy();
+			}
+
+			protected Format create(String pattern, Locale locale) {
+				return new DecimalFormat(pattern,
+						DecimalFormatSymbols.getInstance(locale));
+			}
+
+			/**
+			 * Returns a FastFormat rendering the same output as the Format
+			 * generated or <code>null</code> if there is none.
+			 */
+			protected FastFormat fastFormat(FormatGenerators formatGenerators) {
+				return null;
+			}
+
+		}
+
+		/**
+		 * Renders non-negative values (zero padded) with a prefix and a
+		 * suffix directly into a StringBuilder without java.text.
+		 * 
+		 * @author Peter Fichtner
+		 */
+		private static class FastFormat {
+
+			private static final long[] SAMPLES = new long[] { 0, 1, 9, 10,
+					59, 99, 100, 999, 1000, 123456789, Long.MAX_VALUE };
+
+			private final int minimumDigits;
+			private final String suffix;
+
+			public FastFormat(int minimumDigits, String suffix) {
+				this.minimumDigits = minimumDigits;
+				this.suffix = suffix;
+			}
+
+			public void appendTo(StringBuilder sb, long value) {
+				for (int i = digits(value); i < this.minimumDigits; i++) {
+					sb.append('0');
+				}
+				sb.append(value).append(this.suffix);
+			}
+
+			private static int digits(long value) {
+				int digits = 1;
+				for (long l = value; l >= 10; l /= 10) {
+					digits++;
+				}
+				return digits;
+			}
+
+			/**
+			 * Returns this FastFormat if it renders the same as the passed
+			 * Format (e.g. the default locale could use other digits or the
+			 * suffix could contain pattern characters) or <code>null</code>
+			 * otherwise.
+			 */
+			public FastFormat verifiedAgainst(Format format) {
+				StringBuilder sb = new StringBuilder();
+				for (long sample : SAMPLES) {
+					sb.setLength(0);
+					appendTo(sb, sample);
+					if (!sb.toString().equals(format.format(sample))) {
+						return null;
+					}
+				}
+				return this;
+			}
+
 		}
 
 		private static class AppendSymbolFormatGenerator extends
@@ -138,9 +478,16 @@ public interface DurationFormatter {
 				this.symbol = symbol;
 			}
 
-			public Format generate(FormatGenerators formatGenerators) {
-				return new DecimalFormat("0"
-						+ formatGenerators.valueSymbolSeparator + this.symbol);
+			public Format generate(FormatGenerators formatGenerators,
+					Locale locale) {
+				return copyOf("0" + formatGenerators.valueSymbolSeparator
+						+ this.symbol, locale);
+			}
+
+			@Override
+			protected FastFormat fastFormat(FormatGenerators formatGenerators) {
+				return new FastFormat(1, formatGenerators.valueSymbolSeparator
+						+ this.symbol);
 			}
 
 		}
@@ -156,17 +503,33 @@ public interface DurationFormatter {
 				this.plural = plural;
 			}
 
-			public Format generate(FormatGenerators formatGenerators) {
-				return new MessageFormat("{0}"
-						+ formatGenerators.valueSymbolSeparator
+			public Format generate(FormatGenerators formatGenerators,
+					Locale locale) {
+				return copyOf("{0}" + formatGenerators.valueSymbolSeparator
 						+ "{0,choice,0#" + this.plural + "|1#" + this.singular
-						+ "|1<" + this.plural + "}");
+						+ "|1<" + this.plural + "}", locale);
+			}
+
+			@Override
+			protected Format create(String pattern, Locale locale) {
+				return new MessageFormat(pattern, locale);
 			}
 		}
 
 		private static class FormatGenerators implements Cloneable {
 
+			/**
+			 * Prototypes of the digit Formats indexed by their minimum amount
+			 * of digits
+			 */
+			private static final Prototype[] DIGITS_PROTOTYPES = new Prototype[4];
+
 			private Map<TimeUnit, FormatGenerator> generators = new HashMap<TimeUnit, FormatGenerator>();
+			/**
+			 * the FormatGenerator of weeks (which are no TimeUnit),
+			 * <code>null</code> for digits
+			 */
+			private FormatGenerator weeks;
 			private String valueSymbolSeparator = "";
 			public boolean leadingZeros = true;
 
@@ -179,6 +542,19 @@ public interface DurationFormatter {
 				this.generators.put(timeUnit, value);
 			}
 
+			public void useWeeksFormatGenerator(FormatGenerator value) {
+				this.weeks = value;
+			}
+
+			/**
+			 * Returns the FormatGenerator of the unit at the passed bucket
+			 * position, <code>null</code> for digits.
+			 */
+			private FormatGenerator generator(int idx) {
+				return idx == TimeUnits.WEEKS ? this.weeks : this.generators
+						.get(TimeUnits.timeUnit(idx));
+			}
+
 			@Override
 			protected FormatGenerators clone()
 					throws CloneNotSupportedException {
@@ -188,34 +564,66 @@ public interface DurationFormatter {
 				return clone;
 			}
 
-			private Map<TimeUnit, Format> createFormats(Builder builder,
-					int idxMin, int idxMax) {
-				Map<TimeUnit, Format> result = new HashMap<TimeUnit, Format>(
-						this.generators.size());
-				// TODO Reuse formatters: Since they are created per instance
-				// they can be used unsynchronized
-				for (TimeUnit timeUnit : TimeUnits.timeUnits.subList(idxMax,
-						idxMin + 1)) {
-					FormatGenerator generator = this.generators.get(timeUnit);
-					result.put(
-							timeUnit,
-							generator == null ? formatFor(timeUnit) : generator
-									.generate(this));
+			/**
+			 * Creates a new set of Formats for the passed locale indexed by
+			 * the bucket position. Since they are created per call they can
+			 * be used unsynchronized by whoever owns them.
+			 */
+			private Format[] createFormats(int idxMin, int idxMax,
+					Locale locale) {
+				Format[] result = new Format[TimeUnits.size()];
+				for (int i = idxMax; i <= idxMin; i++) {
+					FormatGenerator generator = generator(i);
+					result[i] = generator == null ? formatFor(digits(i),
+							locale) : generator.generate(this, locale);
+				}
+				return result;
+			}
+
+			/**
+			 * Creates the FastFormats (indexed by the bucket position) for all
+			 * TimeUnits whose Format can be rendered without java.text.
+			 */
+			private FastFormat[] createFastFormats(int idxMin, int idxMax,
+					Locale locale) {
+				FastFormat[] result = new FastFormat[TimeUnits.size()];
+				Format[] formats = createFormats(idxMin, idxMax, locale);
+				for (int i = idxMax; i <= idxMin; i++) {
+					FormatGenerator generator = generator(i);
+					FastFormat fastFormat = generator == null ? new FastFormat(
+							this.leadingZeros ? digits(i) : 1, "")
+							: generator instanceof AbstractFormatGenerator ? ((AbstractFormatGenerator) generator)
+									.fastFormat(this) : null;
+					result[i] = fastFormat == null ? null : fastFormat
+							.verifiedAgainst(formats[i]);
 				}
 				return result;
 			}
 
-			private NumberFormat formatFor(TimeUnit timeUnit) {
-				return formatFor(timeUnit == DAYS ? 2 : String.valueOf(
-						TimeUnits.maxValues.get(timeUnit) - 1).length());
+			/**
+			 * Returns the amount of digits of the unit at the passed bucket
+			 * position, two for the units without a limit (DAYS and weeks).
+			 */
+			private static int digits(int idx) {
+				return idx <= TimeUnits.indexOf(DAYS) ? 2 : String.valueOf(
+						TimeUnits.maxValue(idx) - 1).length();
 			}
 
-			private DecimalFormat formatFor(int len) {
-				DecimalFormat format = new DecimalFormat();
-				format.setMaximumFractionDigits(0);
-				format.setGroupingUsed(false);
-				format.setMinimumIntegerDigits(this.leadingZeros ? len : 1);
-				return format;
+			private Format formatFor(int len, Locale locale) {
+				int minimumDigits = this.leadingZeros ? len : 1;
+				// racy on purpose, Prototypes are immutable
+				Prototype prototypes = DIGITS_PROTOTYPES[minimumDigits];
+				Prototype prototype = Prototype.find(prototypes, locale, "");
+				if (prototype == null) {
+					DecimalFormat format = new DecimalFormat("0",
+							DecimalFormatSymbols.getInstance(locale));
+					format.setMaximumFractionDigits(0);
+					format.setGroupingUsed(false);
+					format.setMinimumIntegerDigits(minimumDigits);
+					DIGITS_PROTOTYPES[minimumDigits] = prototype = new Prototype(
+							locale, "", format, prototypes);
+				}
+				return prototype.copy();
 			}
 
 		}
@@ -232,7 +640,7 @@ public interface DurationFormatter {
 		 * @author Peter Fichtner
 		 */
 		private static class DefaultDurationFormatter implements
-				DurationFormatter {
+				TimeValuesFormatter {
 
 			/**
 			 * This strategy marks fields between {@link #minimum} and
@@ -241,51 +649,62 @@ public interface DurationFormatter {
 			 * @author Peter Fichtner
 			 */
 			private static class SetUnusedTimeUnitsInvisibleStrategy implements
-					Strategy {
+					ColumnStrategy {
 
-				private final TimeUnit minimum;
-				private final TimeUnit maximum;
+				private final int idxMin;
+				private final int idxMax;
+				private final int mask;
 
-				public SetUnusedTimeUnitsInvisibleStrategy(TimeUnit minimum,
-						TimeUnit maximum) {
-					this.minimum = minimum;
-					this.maximum = maximum;
+				public SetUnusedTimeUnitsInvisibleStrategy(int idxMin,
+						int idxMax) {
+					this.idxMin = idxMin;
+					this.idxMax = idxMax;
+					this.mask = (1 << idxMin + 1) - (1 << idxMax);
 				}
 
 				public TimeValues apply(TimeValues values) {
 					for (Bucket bucket : values) {
-						TimeUnit timeUnit = bucket.getTimeUnit();
-						boolean b1 = timeUnit.compareTo(this.minimum) >= 0;
-						boolean b2 = timeUnit.compareTo(this.maximum) <= 0;
-						bucket.setVisible(b1 && b2);
+						int idx = bucket.getPosition();
+						bucket.setVisible(idx >= this.idxMax
+								&& idx <= this.idxMin);
 					}
 					return values;
 				}
 
+				public void apply(long[][] columns, int[] visible) {
+					Arrays.fill(visible, this.mask);
+				}
+
 			}
 
 			/**
-			 * An abstract strategy that marks zeros as invisible.
+			 * Strategy that adds weeks in front of DAYS, used as first step
+			 * of formatters showing weeks (the decomposition ends at DAYS).
 			 * 
 			 * @author Peter Fichtner
 			 */
-			private static abstract class RemoveZerosStrategy implements
-					Strategy {
+			private static class ShowWeeksStrategy implements Strategy {
 
-				private final TimeUnit minimum;
-				private final TimeUnit maximum;
-
-				public RemoveZerosStrategy(TimeUnit minimum, TimeUnit maximum) {
-					this.minimum = minimum;
-					this.maximum = maximum;
+				public TimeValues apply(TimeValues values) {
+					return values.showWeeks();
 				}
 
-				protected TimeUnit getMinimum() {
-					return this.minimum;
-				}
+			}
+
+			/**
+			 * An abstract strategy that marks zeros as invisible.
+			 * 
+			 * @author Peter Fichtner
+			 */
+			private static abstract class RemoveZerosStrategy implements
+					ColumnStrategy {
+
+				protected final int idxMin;
+				protected final int idxMax;
 
-				protected TimeUnit getMaximum() {
-					return this.maximum;
+				public RemoveZerosStrategy(int idxMin, int idxMax) {
+					this.idxMin = idxMin;
+					this.idxMax = idxMax;
 				}
 
 				protected TimeValues removeZeros(TimeValues values,
@@ -300,6 +719,30 @@ public interface DurationFormatter {
 					return values;
 				}
 
+				/**
+				 * {@link #removeZeros(TimeValues, Iterable)} for the
+				 * positions <code>from</code> (inclusive) to
+				 * <code>to</code> (exclusive) of all rows, column by column.
+				 */
+				protected void removeZeros(long[][] columns, int[] visible,
+						int from, int to) {
+					int step = from <= to ? 1 : -1;
+					boolean[] done = new boolean[visible.length];
+					for (int i = from; i != to; i += step) {
+						int bit = 1 << i;
+						long[] column = columns[i];
+						for (int r = 0; r < visible.length; r++) {
+							if (!done[r]) {
+								if ((visible[r] & bit) != 0 && column[r] != 0) {
+									done[r] = true;
+								} else {
+									visible[r] &= ~bit;
+								}
+							}
+						}
+					}
+				}
+
 			}
 
 			/**
@@ -310,14 +753,17 @@ public interface DurationFormatter {
 			private static class RemoveLeadingZerosStrategy extends
 					RemoveZerosStrategy {
 
-				public RemoveLeadingZerosStrategy(TimeUnit minimum,
-						TimeUnit maximum) {
-					super(minimum, maximum);
+				public RemoveLeadingZerosStrategy(int idxMin, int idxMax) {
+					super(idxMin, idxMax);
 				}
 
 				public TimeValues apply(TimeValues values) {
 					return removeZeros(values,
-							values.sequence(getMaximum(), getMinimum()));
+							values.sequence(this.idxMax, this.idxMin));
+				}
+
+				public void apply(long[][] columns, int[] visible) {
+					removeZeros(columns, visible, this.idxMax, this.idxMin);
 				}
 
 			}
@@ -330,14 +776,17 @@ public interface DurationFormatter {
 			private static class RemoveTrailingZerosStrategy extends
 					RemoveZerosStrategy {
 
-				public RemoveTrailingZerosStrategy(TimeUnit minimum,
-						TimeUnit maximum) {
-					super(minimum, maximum);
+				public RemoveTrailingZerosStrategy(int idxMin, int idxMax) {
+					super(idxMin, idxMax);
 				}
 
 				public TimeValues apply(TimeValues values) {
 					return removeZeros(values,
-							values.sequence(getMinimum(), getMaximum()));
+							values.sequence(this.idxMin, this.idxMax));
+				}
+
+				public void apply(long[][] columns, int[] visible) {
+					removeZeros(columns, visible, this.idxMin, this.idxMax);
 				}
 
 			}
@@ -351,18 +800,17 @@ public interface DurationFormatter {
 			private static class RemoveMiddleZerosStrategy extends
 					RemoveZerosStrategy {
 
-				public RemoveMiddleZerosStrategy(TimeUnit minimum,
-						TimeUnit maximum) {
-					super(minimum, maximum);
+				public RemoveMiddleZerosStrategy(int idxMin, int idxMax) {
+					super(idxMin, idxMax);
 				}
 
 				public TimeValues apply(TimeValues values) {
-					Iterable<Bucket> sequence = values.sequence(getMaximum(),
-							getMinimum());
-					TimeUnit firstNonZero = findFirstVisibleNonZero(sequence);
-					TimeUnit lastNonZero = findFirstVisibleNonZero(values
-							.sequence(getMinimum(), getMaximum()));
-					if (firstNonZero != null && lastNonZero != null) {
+					Iterable<Bucket> sequence = values.sequence(this.idxMax,
+							this.idxMin);
+					int firstNonZero = findFirstVisibleNonZero(sequence);
+					int lastNonZero = findFirstVisibleNonZero(values.sequence(
+							this.idxMin, this.idxMax));
+					if (firstNonZero >= 0 && lastNonZero >= 0) {
 						for (Bucket bucket : values.sequenceInclude(
 								firstNonZero, lastNonZero)) {
 							if (bucket.isVisible() && bucket.getValue() == 0) {
@@ -373,14 +821,46 @@ public interface DurationFormatter {
 					return values;
 				}
 
-				private TimeUnit findFirstVisibleNonZero(
-						Iterable<Bucket> buckets) {
+				private int findFirstVisibleNonZero(Iterable<Bucket> buckets) {
 					for (Bucket bucket : buckets) {
 						if (bucket.isVisible() && bucket.getValue() != 0) {
-							return bucket.getTimeUnit();
+							return bucket.getPosition();
 						}
 					}
-					return null;
+					return -1;
+				}
+
+				public void apply(long[][] columns, int[] visible) {
+					for (int r = 0; r < visible.length; r++) {
+						int first = findFirstVisibleNonZero(columns,
+								visible[r], r, this.idxMax, this.idxMin);
+						int last = findFirstVisibleNonZero(columns,
+								visible[r], r, this.idxMin, this.idxMax);
+						if (first >= 0 && last >= 0) {
+							for (int i = Math.min(first, last); i <= Math.max(
+									first, last); i++) {
+								if (columns[i][r] == 0) {
+									visible[r] &= ~(1 << i);
+								}
+							}
+						}
+					}
+				}
+
+				/**
+				 * Returns the first position from <code>from</code>
+				 * (inclusive) to <code>to</code> (exclusive) that is visible
+				 * and not zero, -1 if there is none.
+				 */
+				private static int findFirstVisibleNonZero(long[][] columns,
+						int visible, int row, int from, int to) {
+					int step = from <= to ? 1 : -1;
+					for (int i = from; i != to; i += step) {
+						if ((visible & 1 << i) != 0 && columns[i][row] != 0) {
+							return i;
+						}
+					}
+					return -1;
 				}
 
 			}
@@ -391,7 +871,7 @@ public interface DurationFormatter {
 			 * 
 			 * @author Peter Fichtner
 			 */
-			private static class LimitStrategy implements Strategy {
+			private static class LimitStrategy implements ColumnStrategy {
 
 				private final int limit;
 
@@ -412,6 +892,22 @@ public interface DurationFormatter {
 					return values;
 				}
 
+				public void apply(long[][] columns, int[] visible) {
+					int[] visibles = new int[visible.length];
+					for (int i = 0; i < columns.length; i++) {
+						int bit = 1 << i;
+						for (int r = 0; r < visible.length; r++) {
+							if ((visible[r] & bit) != 0) {
+								if (visibles[r] < this.limit) {
+									visibles[r]++;
+								} else {
+									visible[r] &= ~bit;
+								}
+							}
+						}
+					}
+				}
+
 			}
 
 			/**
@@ -419,7 +915,7 @@ public interface DurationFormatter {
 			 * 
 			 * @author Peter Fichtner
 			 */
-			private static class RoundingStrategy implements Strategy {
+			private static class RoundingStrategy implements ColumnStrategy {
 
 				public TimeValues apply(TimeValues values) {
 					// search first invisible
@@ -435,6 +931,21 @@ public interface DurationFormatter {
 					return values;
 				}
 
+				public void apply(long[][] columns, int[] visible) {
+					for (int r = 0; r < visible.length; r++) {
+						int first = Integer.numberOfTrailingZeros(visible[r]);
+						if (first < columns.length) {
+							// first invisible after the first visible
+							int idx = first
+									+ Integer
+											.numberOfTrailingZeros(~visible[r] >>> first);
+							if (idx < columns.length) {
+								TimeValues.pushLeftRounded(columns, r, idx);
+							}
+						}
+					}
+				}
+
 			}
 
 			/**
@@ -443,7 +954,8 @@ public interface DurationFormatter {
 			 * 
 			 * @author Peter Fichtner
 			 */
-			private static class PollFromLeftStrategy implements Strategy {
+			private static class PollFromLeftStrategy implements
+					ColumnStrategy {
 
 				public TimeValues apply(TimeValues values) {
 					// findFirstVisible and pull from left
@@ -456,6 +968,15 @@ public interface DurationFormatter {
 					return values;
 				}
 
+				public void apply(long[][] columns, int[] visible) {
+					for (int r = 0; r < visible.length; r++) {
+						if (visible[r] != 0) {
+							TimeValues.pollFromLeft(columns, r,
+									Integer.numberOfTrailingZeros(visible[r]));
+						}
+					}
+				}
+
 			}
 
 			/**
@@ -464,12 +985,12 @@ public interface DurationFormatter {
 			 * @author Peter Fichtner
 			 */
 			private static class SetAtLeastOneBucketVisibleStrategy implements
-					Strategy {
+					ColumnStrategy {
 
-				private final TimeUnit minimum;
+				private final int idxMin;
 
-				public SetAtLeastOneBucketVisibleStrategy(TimeUnit minimum) {
-					this.minimum = minimum;
+				public SetAtLeastOneBucketVisibleStrategy(int idxMin) {
+					this.idxMin = idxMin;
 				}
 
 				public TimeValues apply(TimeValues values) {
@@ -478,72 +999,528 @@ public interface DurationFormatter {
 							return values;
 						}
 					}
-					values.getBucket(this.minimum).setVisible(true);
+					values.getBucket(this.idxMin).setVisible(true);
 					return values;
 				}
 
-			}
+				public void apply(long[][] columns, int[] visible) {
+					int bit = 1 << this.idxMin;
+					for (int r = 0; r < visible.length; r++) {
+						if (visible[r] == 0) {
+							visible[r] = bit;
+						}
+					}
+				}
 
-			private final String separator;
+			}
 
-			private final Strategy strategy;
+			/**
+			 * A set of Formats (indexed by bucket position) together with the
+			 * scratch buffer the Formats render into. NumberFormats are
+			 * called with the primitive value (DecimalFormat still allocates
+			 * a small FieldPosition delegate per call). MessageFormats (used
+			 * for symbol choices) need the value boxed and allocate
+			 * intermediate Strings inside java.text, only the argument array
+			 * is reused.
+			 * 
+			 * @author Peter Fichtner
+			 */
+			private static class Formats {
 
-			private Map<TimeUnit, Format> formats;
+				private final Format[] formats;
+				private final StringBuffer buffer = new StringBuffer();
+				private final FieldPosition fieldPosition = new FieldPosition(0);
+				private final Object[] arguments = new Object[1];
 
-			public DefaultDurationFormatter(Builder builder) {
-				checkState(builder.minimum.compareTo(builder.maximum) <= 0,
-						"maximum must not be smaller than minimum");
-				int idxMin = indexOf(TimeUnits.timeUnits, builder.minimum);
-				int idxMax = indexOf(TimeUnits.timeUnits, builder.maximum);
-				checkState(idxMin > idxMax, "min must not be greater than max");
-				this.separator = builder.separator;
+				public Formats(Format[] formats) {
+					this.formats = formats;
+				}
 
-				this.strategy = createStrategy(builder);
-				this.formats = Collections
-						.unmodifiableMap(builder.formatGenerators
-								.createFormats(builder, idxMin, idxMax));
-			}
+				public void appendTo(StringBuilder sb, long value, int idx) {
+					Format format = this.formats[idx];
+					this.buffer.setLength(0);
+					if (format instanceof NumberFormat) {
+						((NumberFormat) format).format(value, this.buffer,
+								this.fieldPosition);
+					} else if (format instanceof MessageFormat) {
+						this.arguments[0] = Long.valueOf(value);
+						((MessageFormat) format).format(this.arguments,
+								this.buffer, this.fieldPosition);
+						this.arguments[0] = null;
+					} else {
+						format.format(Long.valueOf(value), this.buffer,
+								this.fieldPosition);
+					}
+					sb.append(this.buffer);
+				}
 
-			public Strategy createStrategy(Builder builder) {
-				PollFromLeftStrategy pollFromLeftStrategy = new PollFromLeftStrategy();
-				StrategyBuilder sb = new StrategyBuilder().add(
-						new SetUnusedTimeUnitsInvisibleStrategy(
-								builder.minimum, builder.maximum)).add(
-						pollFromLeftStrategy);
-				sb = builder.suppressZeros.contains(SuppressZeros.LEADING) ? sb
-						.add(new RemoveLeadingZerosStrategy(builder.minimum,
-								builder.maximum)) : sb;
-				sb = builder.suppressZeros.contains(SuppressZeros.TRAILING) ? sb
-						.add(new RemoveTrailingZerosStrategy(builder.minimum,
-								builder.maximum)) : sb;
-				sb = builder.suppressZeros.contains(SuppressZeros.MIDDLE) ? sb
-						.add(new RemoveMiddleZerosStrategy(builder.minimum,
-								builder.maximum)) : sb;
-				sb = builder.maximumAmountOfUnitsToShow > 0 ? sb
-						.add(new LimitStrategy(
-								builder.maximumAmountOfUnitsToShow)) : sb;
-				// pushLeft (when rounding) can lead to pushes into invisible
-				// buckets, let's get them back using PollFromLeftStrategy
-				sb = builder.round ? sb.add(new RoundingStrategy()).add(
-						pollFromLeftStrategy) : sb;
-				return sb
-						.add(new SetAtLeastOneBucketVisibleStrategy(
-								builder.minimum)).build();
 			}
 
 			/**
-			 * Format the passed milliseconds to the format specified.
+			 * Striped pool of Format sets. java.text Formats are not
+			 * threadsafe so each format call borrows its own set from the
+			 * stripe of the current thread. Borrowing and returning are plain
+			 * CAS operations, so threads do neither block nor pin (virtual)
+			 * carrier threads. If the stripe is empty (another thread on the
+			 * same stripe holds its set) the neighbouring stripes and an
+			 * overflow entry are tried before a new set is generated from
+			 * the FormatGenerators (for the locale captured when the
+			 * formatter was built), on return a set is dropped only if all
+			 * of them are occupied.
 			 * 
-			 * @param value
-			 *            the millis to format
-			 * @return String containing the duration
-			 * @see #format(long, TimeUnit)
+			 * @author Peter Fichtner
 			 */
-			public String formatMillis(long value) {
-				return format(value, MILLISECONDS);
-			}
+			private static class FormatPool {
+
+				/**
+				 * amount of stripes tried (starting with the one of the
+				 * current thread)
+				 */
+				private static final int PROBES = 3;
+
+				private final FormatGenerators formatGenerators;
+				private final Locale locale;
+				private final int idxMin;
+				private final int idxMax;
+				private final AtomicReferenceArray<Formats> stripes;
+				private final AtomicReference<Formats> overflow = new AtomicReference<Formats>();
+				private final int mask;
+
+				public FormatPool(FormatGenerators formatGenerators,
+						Locale locale, int idxMin, int idxMax) {
+					this.formatGenerators = formatGenerators;
+					this.locale = locale;
+					this.idxMin = idxMin;
+					this.idxMax = idxMax;
+					int size = PowersOfTwo.stripes();
+					this.stripes = new AtomicReferenceArray<Formats>(size);
+					this.mask = size - 1;
+					this.stripes.set(0, create());
+				}
 
-			/**
+				private Formats create() {
+					return new Formats(this.formatGenerators.createFormats(
+							this.idxMin, this.idxMax, this.locale));
+				}
+
+				private int stripe() {
+					long id = Thread.currentThread().getId();
+					return (int) (id ^ (id >>> 32)) & this.mask;
+				}
+
+				public Formats borrow() {
+					int stripe = stripe();
+					for (int i = 0; i < PROBES; i++) {
+						Formats formats = this.stripes.getAndSet(
+								(stripe + i) & this.mask, null);
+						if (formats != null) {
+							return formats;
+						}
+					}
+					Formats formats = this.overflow.getAndSet(null);
+					return formats == null ? createContended() : formats;
+				}
+
+				private Formats createContended() {
+					Object event = EVENTS.beginFormatsCreation();
+					Formats formats = create();
+					EVENTS.endFormatsCreation(event);
+					return formats;
+				}
+
+				public void release(Formats formats) {
+					int stripe = stripe();
+					for (int i = 0; i < PROBES; i++) {
+						if (this.stripes.compareAndSet((stripe + i) & this.mask,
+								null, formats)) {
+							return;
+						}
+					}
+					this.overflow.compareAndSet(null, formats);
+				}
+
+			}
+
+			/**
+			 * Precomputed outputs of a formatter for all values below a bound.
+			 * The output of a formatter only depends on the value in the
+			 * TimeUnit below its minimum (the one rounding looks at) and when
+			 * rounding only on which half of that unit the value is in. So
+			 * the output can be looked up by one division if the amount of
+			 * such steps below one unit greater than the maximum is small.
+			 * 
+			 * @author Peter Fichtner
+			 */
+			private static class OutputTable {
+
+				private final TimeUnit timeUnit;
+				private final long step;
+				private final int length;
+				/**
+				 * the computed outputs or <code>null</code> if they are
+				 * looked up in {@link #file}
+				 */
+				private final String[] outputs;
+				private final OutputTableFile file;
+
+				private OutputTable(TimeUnit timeUnit, long step,
+						String[] outputs) {
+					this.timeUnit = timeUnit;
+					this.step = step;
+					this.length = outputs.length;
+					this.outputs = outputs;
+					this.file = null;
+				}
+
+				private OutputTable(TimeUnit timeUnit, long step,
+						OutputTableFile file) {
+					this.timeUnit = timeUnit;
+					this.step = step;
+					this.length = file.length();
+					this.outputs = null;
+					this.file = file;
+				}
+
+				/**
+				 * Probe values (in nanoseconds) having a different value in
+				 * each unit so the outputs (being part of the fingerprint)
+				 * reflect the symbols and patterns used
+				 */
+				private static final long[] PROBES = new long[] { 0,
+						93784005006007L, 3723499999999L, 3723500000000L };
+
+				public static OutputTable create(
+						DefaultDurationFormatter formatter, int idxMin,
+						int idxMax, Builder builder) {
+					boolean round = builder.round;
+					int threshold = builder.precomputeThreshold;
+					if (idxMax <= TimeUnits.WEEKS + 1 || threshold <= 0) {
+						// no greater unit than the maximum: unbounded
+						return null;
+					}
+					int idx = Math.min(idxMin + 1, TimeUnits.size() - 1);
+					long step = idx == idxMin ? 1 : round ? TimeUnits
+							.maxValue(idx) / 2 : TimeUnits.maxValue(idx);
+					long bound = threshold * step;
+					long values = 1;
+					for (int i = idxMax; i <= idx && values <= bound; i++) {
+						values *= TimeUnits.maxValue(i);
+					}
+					if (values > bound) {
+						return null;
+					}
+					TimeUnit timeUnit = TimeUnits.timeUnit(idx);
+					int length = (int) (values / step);
+					File directory = builder.precomputeDirectory;
+					String fingerprint = directory == null ? null
+							: fingerprint(formatter, builder, timeUnit, step,
+									length);
+					OutputTableFile file = fingerprint == null ? null
+							: OutputTableFile.load(directory, fingerprint,
+									length);
+					if (file != null) {
+						return new OutputTable(timeUnit, step, file);
+					}
+					String[] outputs = compute(formatter, timeUnit, step,
+							length);
+					if (fingerprint != null) {
+						OutputTableFile.store(directory, fingerprint, outputs);
+					}
+					return new OutputTable(timeUnit, step, outputs);
+				}
+
+				private static String[] compute(
+						DefaultDurationFormatter formatter, TimeUnit timeUnit,
+						long step, int length) {
+					String[] outputs = new String[length];
+					String previous = null;
+					for (int i = 0; i < outputs.length; i++) {
+						String output = formatter.format(i * step, timeUnit);
+						outputs[i] = previous = output.equals(previous) ? previous
+								: output;
+					}
+					return outputs;
+				}
+
+				private static String fingerprint(
+						DefaultDurationFormatter formatter, Builder builder,
+						TimeUnit timeUnit, long step, int length) {
+					StringBuilder sb = new StringBuilder().append(builder)
+							.append('\n').append(timeUnit).append('\n')
+							.append(step).append('\n').append(length);
+					for (long probe : PROBES) {
+						sb.append('\n').append(
+								formatter.format(probe, NANOSECONDS));
+					}
+					for (long i : new long[] { 1, length / 2 + 1, length - 1 }) {
+						sb.append('\n').append(
+								formatter.format(i * step, timeUnit));
+					}
+					return sb.toString();
+				}
+
+				/**
+				 * Returns the precomputed output or <code>null</code> if the
+				 * value is out of the range of this table.
+				 */
+				public String lookup(long value, TimeUnit timeUnit) {
+					if (value < 0) {
+						return null;
+					}
+					long key = this.timeUnit.convert(value, timeUnit)
+							/ this.step;
+					if (key >= this.length) {
+						return null;
+					}
+					return this.outputs == null ? this.file.get((int) key)
+							: this.outputs[(int) key];
+				}
+
+			}
+
+			/**
+			 * Closed form of the strategies for configurations not
+			 * suppressing trailing or middle zeros: the visible units are the
+			 * first non-zero one (or the maximum if leading zeros are not
+			 * suppressed) and the following ones up to the limit (or the
+			 * minimum), all of them are computed from the value rounded to
+			 * the last visible unit. So the value does not have to be
+			 * decomposed into TimeValues and no strategy has to run. Only
+			 * used for non-negative values that can be represented in
+			 * nanoseconds (there is no saturation to mimic then).
+			 * 
+			 * @author Peter Fichtner
+			 */
+			private static class TopUnits {
+
+				/**
+				 * Samples (in nanoseconds) the closed form is verified
+				 * against the strategies with
+				 */
+				private static final long[] SAMPLES = new long[] { 0, 1, 499,
+						500, 999, 499999, 500000, 999999, 499999999,
+						500000000, 999999999, 29999999999L, 30000000000L,
+						59499999999L, 59500000000L, 59999999999L,
+						1799999999999L, 1800000000000L, 3599499999999L,
+						3599500000000L, 3599999999999L, 43199999999999L,
+						43200000000000L, 86399500000000L, 86399999999999L,
+						93784005006007L, 1234567890123456L,
+						Long.MAX_VALUE - 1 };
+
+				private final int idxMin;
+				private final int idxMax;
+				private final int limit;
+				private final boolean leading;
+				private final boolean round;
+
+				/**
+				 * Length of the units in nanoseconds indexed by bucket
+				 * position
+				 */
+				private final long[] nanos = new long[TimeUnits.size()];
+
+				private TopUnits(Builder builder, int idxMin, int idxMax) {
+					this.idxMin = idxMin;
+					this.idxMax = idxMax;
+					this.limit = builder.maximumAmountOfUnitsToShow > 0 ? builder.maximumAmountOfUnitsToShow
+							: Integer.MAX_VALUE;
+					this.leading = builder.suppressZeros
+							.contains(SuppressZeros.LEADING);
+					this.round = builder.round;
+					for (int i = 0; i < this.nanos.length; i++) {
+						this.nanos[i] = TimeUnits.nanos(i);
+					}
+				}
+
+				public static TopUnits create(
+						DefaultDurationFormatter formatter, Builder builder,
+						int idxMin, int idxMax) {
+					// DAYS are carried into weeks by the strategies only
+					if (builder.suppressZeros.contains(SuppressZeros.TRAILING)
+							|| builder.suppressZeros
+									.contains(SuppressZeros.MIDDLE)
+							|| idxMax == TimeUnits.WEEKS) {
+						return null;
+					}
+					TopUnits topUnits = new TopUnits(builder, idxMin, idxMax);
+					for (long sample : SAMPLES) {
+						StringBuilder expected = formatter.join(
+								new StringBuilder(), formatter.strategy
+										.apply(new TimeValues(sample,
+												NANOSECONDS)));
+						StringBuilder actual = formatter.appendTopUnits(
+								new StringBuilder(), topUnits, sample);
+						if (!expected.toString().equals(actual.toString())) {
+							return null;
+						}
+					}
+					return topUnits;
+				}
+
+				public int first(long nanos) {
+					if (this.leading) {
+						for (int i = this.idxMax; i < this.idxMin; i++) {
+							if (nanos >= this.nanos[i]) {
+								return i;
+							}
+						}
+						return this.idxMin;
+					}
+					return this.idxMax;
+				}
+
+				public int last(int first) {
+					return (int) Math.min((long) first + this.limit - 1,
+							this.idxMin);
+				}
+
+				/**
+				 * Returns the value in units of <code>last</code>, rounded
+				 * by the next smaller unit if rounding.
+				 */
+				public long count(long nanos, int last) {
+					long count = nanos / this.nanos[last];
+					int next = last + 1;
+					if (this.round && next < this.nanos.length) {
+						long maxValue = TimeUnits.maxValue(next);
+						if ((nanos / this.nanos[next]) % maxValue >= maxValue / 2) {
+							count++;
+						}
+					}
+					return count;
+				}
+
+				public long value(long count, int first, int last, int idx) {
+					long value = count / (this.nanos[idx] / this.nanos[last]);
+					return idx == first ? value : value
+							% TimeUnits.maxValue(idx);
+				}
+
+			}
+
+			/**
+			 * Visibility (see {@link ColumnStrategy}) of all buckets
+			 */
+			private static final int ALL_VISIBLE = (1 << TimeUnits.size()) - 1;
+
+			private final String separator;
+
+			private final TimeUnit maximum;
+
+			private final Strategy strategy;
+
+			/**
+			 * Everything {@link #strategy} depends on
+			 */
+			private final List<Object> strategyKey;
+
+			private final FormatPool formats;
+
+			/**
+			 * FastFormats indexed by bucket position, <code>null</code> for
+			 * TimeUnits rendered by the pooled Formats
+			 */
+			private final FastFormat[] fastFormats;
+
+			private final OutputTable outputTable;
+
+			private final TopUnits topUnits;
+
+			/**
+			 * Position of the minimum, fractional values converted to this (or
+			 * a greater) unit are truncated if rounding is disabled
+			 */
+			private final int idxMin;
+
+			private final boolean round;
+
+			private final String nan;
+
+			private final String positiveInfinity;
+
+			private final String negativeInfinity;
+
+			public DefaultDurationFormatter(Builder builder) {
+				checkState(builder.minimum.compareTo(builder.maximum) <= 0,
+						"maximum must not be smaller than minimum");
+				int idxMin = TimeUnits.indexOf(builder.minimum);
+				int idxMax = builder.weeks ? TimeUnits.WEEKS : TimeUnits
+						.indexOf(builder.maximum);
+				checkState(idxMin >= idxMax, "min must not be greater than max");
+				this.separator = builder.separator;
+				this.maximum = builder.maximum;
+				this.idxMin = idxMin;
+				this.round = builder.round;
+				this.nan = builder.nan;
+				this.positiveInfinity = builder.positiveInfinity;
+				this.negativeInfinity = builder.negativeInfinity;
+
+				this.strategy = createStrategy(builder, idxMin, idxMax);
+				// explaining formatters report each of their calls so they
+				// never share the strategy work (a key equal to no other)
+				this.strategyKey = Arrays.<Object> asList(builder.minimum,
+						builder.maximum, Boolean.valueOf(builder.weeks),
+						builder.suppressZeros,
+						Integer.valueOf(builder.maximumAmountOfUnitsToShow),
+						Boolean.valueOf(builder.round),
+						builder.explainListener == null ? null : new Object());
+				// Formats created lazily use the locale of build() as well
+				Locale locale = Prototype.locale();
+				this.formats = new FormatPool(builder.formatGenerators, locale,
+						idxMin, idxMax);
+				this.fastFormats = builder.engine == Engine.FAST ? builder.formatGenerators
+						.createFastFormats(idxMin, idxMax, locale)
+						: new FastFormat[TimeUnits.size()];
+				// explaining needs every call to run the strategies
+				boolean fast = builder.engine == Engine.FAST
+						&& builder.explainListener == null;
+				this.topUnits = fast ? TopUnits.create(this, builder, idxMin,
+						idxMax) : null;
+				this.outputTable = fast ? OutputTable.create(this, idxMin,
+						idxMax, builder) : null;
+			}
+
+			public Strategy createStrategy(Builder builder, int idxMin,
+					int idxMax) {
+				PollFromLeftStrategy pollFromLeftStrategy = new PollFromLeftStrategy();
+				StrategyBuilder sb = new StrategyBuilder();
+				sb = idxMax == TimeUnits.WEEKS ? sb.add(new ShowWeeksStrategy())
+						: sb;
+				sb = sb.add(new SetUnusedTimeUnitsInvisibleStrategy(idxMin,
+						idxMax)).add(pollFromLeftStrategy);
+				sb = builder.suppressZeros.contains(SuppressZeros.LEADING) ? sb
+						.add(new RemoveLeadingZerosStrategy(idxMin, idxMax))
+						: sb;
+				sb = builder.suppressZeros.contains(SuppressZeros.TRAILING) ? sb
+						.add(new RemoveTrailingZerosStrategy(idxMin, idxMax))
+						: sb;
+				sb = builder.suppressZeros.contains(SuppressZeros.MIDDLE) ? sb
+						.add(new RemoveMiddleZerosStrategy(idxMin, idxMax))
+						: sb;
+				sb = builder.maximumAmountOfUnitsToShow > 0 ? sb
+						.add(new LimitStrategy(
+								builder.maximumAmountOfUnitsToShow)) : sb;
+				// pushLeft (when rounding) can lead to pushes into invisible
+				// buckets, let's get them back using PollFromLeftStrategy
+				sb = builder.round ? sb.add(new RoundingStrategy()).add(
+						pollFromLeftStrategy) : sb;
+				return sb.add(new SetAtLeastOneBucketVisibleStrategy(idxMin))
+						.build(builder.explainListener);
+			}
+
+			/**
+			 * Format the passed milliseconds to the format specified.
+			 * 
+			 * @param value
+			 *            the millis to format
+			 * @return String containing the duration
+			 * @see #format(long, TimeUnit)
+			 */
+			public String formatMillis(long value) {
+				return format(value, MILLISECONDS);
+			}
+
+			/**
 			 * Format the passed duration to the format specified.
 			 * 
 			 * @param longVal
@@ -551,32 +1528,302 @@ public interface DurationFormatter {
 			 * @return String containing the duration
 			 */
 			public String format(long longVal, TimeUnit timeUnit) {
-				return join(this.strategy.apply(new TimeValues(longVal,
-						timeUnit)));
+				Object event = EVENTS.beginFormat();
+				String precomputed = lookup(longVal, timeUnit);
+				String result = precomputed == null ? compute(
+						new StringBuilder(), null, longVal, timeUnit)
+						.toString() : precomputed;
+				EVENTS.endFormat(event, longVal, timeUnit);
+				return result;
 			}
 
-			private String join(TimeValues values) {
-				StringBuilder sb = new StringBuilder();
-				// since we use non-threadsafe Formaters we have to synchronize
-				synchronized (this.formats) {
-					for (Bucket bucket : values) {
-						if (bucket.isVisible()) {
-							sb.append(
-									getValueString(bucket.getValue(),
-											bucket.getTimeUnit())).append(
-									this.separator);
+			public StringBuilder formatTo(StringBuilder sb, long value,
+					TimeUnit timeUnit) {
+				Object event = EVENTS.beginFormat();
+				String precomputed = lookup(value, timeUnit);
+				StringBuilder result = precomputed == null ? compute(sb, null,
+						value, timeUnit) : sb.append(precomputed);
+				EVENTS.endFormat(event, value, timeUnit);
+				return result;
+			}
+
+			public StringBuilder formatTo(StringBuilder sb,
+					TimeValues timeValues, long value, TimeUnit timeUnit) {
+				Object event = EVENTS.beginFormat();
+				String precomputed = lookup(value, timeUnit);
+				StringBuilder result = precomputed == null ? compute(sb,
+						timeValues, value, timeUnit) : sb.append(precomputed);
+				EVENTS.endFormat(event, value, timeUnit);
+				return result;
+			}
+
+			public String format(double value, TimeUnit timeUnit) {
+				return formatTo(new StringBuilder(), value, timeUnit)
+						.toString();
+			}
+
+			public StringBuilder formatTo(StringBuilder sb, double value,
+					TimeUnit timeUnit) {
+				if (Double.isNaN(value)) {
+					return sb.append(this.nan);
+				}
+				if (Double.isInfinite(value)) {
+					return sb.append(value > 0 ? this.positiveInfinity
+							: this.negativeInfinity);
+				}
+				int idx = TimeUnits.finestIndexOf(value, timeUnit);
+				return formatTo(sb, convert(value, timeUnit, idx),
+						TimeUnits.timeUnit(idx));
+			}
+
+			/**
+			 * Converts the passed finite value to the unit at position
+			 * <code>idx</code>. The rest is rounded to the nearest unit unless
+			 * that unit is not finer than the minimum and rounding is
+			 * disabled (the strategies truncate then).
+			 */
+			long convert(double value, TimeUnit timeUnit, int idx) {
+				return TimeUnits.convert(value, timeUnit, idx, this.round
+						|| idx > this.idxMin);
+			}
+
+			/**
+			 * Formats the passed value using the closed form if possible, the
+			 * strategies otherwise.
+			 * 
+			 * @param timeValues
+			 *            the TimeValues to reuse, <code>null</code> to create
+			 *            one if needed
+			 */
+			private StringBuilder compute(StringBuilder sb,
+					TimeValues timeValues, long value, TimeUnit timeUnit) {
+				if (this.topUnits != null && value >= 0) {
+					long nanos = timeUnit.toNanos(value);
+					if (nanos != Long.MAX_VALUE) {
+						return appendTopUnits(sb, this.topUnits, nanos);
+					}
+				}
+				return join(sb, this.strategy
+						.apply(timeValues == null ? new TimeValues(value,
+								timeUnit) : timeValues.set(value, timeUnit)));
+			}
+
+			private StringBuilder appendTopUnits(StringBuilder sb,
+					TopUnits topUnits, long nanos) {
+				int first = topUnits.first(nanos);
+				int last = topUnits.last(first);
+				long count = topUnits.count(nanos, last);
+				Formats formats = null;
+				for (int i = first; i <= last; i++) {
+					if (i > first) {
+						sb.append(this.separator);
+					}
+					formats = append(sb, formats,
+							topUnits.value(count, first, last, i), i);
+				}
+				if (formats != null) {
+					this.formats.release(formats);
+				}
+				return sb;
+			}
+
+			public Object strategyKey() {
+				return this.strategyKey;
+			}
+
+			public TimeValues applyStrategy(TimeValues timeValues) {
+				return this.strategy.apply(timeValues);
+			}
+
+			public String lookup(long value, TimeUnit timeUnit) {
+				return this.outputTable == null ? null : this.outputTable
+						.lookup(value, timeUnit);
+			}
+
+			public String[] format(long[] values, TimeUnit timeUnit) {
+				if (this.topUnits != null) {
+					// the closed form needs no decomposition
+					TimeValues timeValues = new TimeValues();
+					String[] result = new String[values.length];
+					for (int r = 0; r < values.length; r++) {
+						String precomputed = lookup(values[r], timeUnit);
+						result[r] = precomputed != null ? precomputed
+								: compute(new StringBuilder(), timeValues,
+										values[r], timeUnit).toString();
+					}
+					return result;
+				}
+				boolean[] decomposed = new boolean[values.length];
+				long[][] columns = TimeValues.decompose(values, timeUnit,
+						this.maximum, decomposed);
+				// visibility per row if the strategies were applied column by
+				// column (explaining strategies are applied row by row)
+				int[] visible = null;
+				if (this.strategy instanceof ColumnStrategy) {
+					for (int i = 0; i < columns.length; i++) {
+						columns[i] = columns[i] == null ? new long[values.length]
+								: columns[i];
+					}
+					visible = new int[values.length];
+					((ColumnStrategy) this.strategy).apply(columns, visible);
+				}
+				TimeValues timeValues = new TimeValues();
+				String[] result = new String[values.length];
+				for (int r = 0; r < values.length; r++) {
+					String precomputed = lookup(values[r], timeUnit);
+					result[r] = precomputed != null ? precomputed
+							: decomposed[r] ? join(
+									new StringBuilder(),
+									visible == null ? this.strategy
+											.apply(timeValues.load(columns, r,
+													ALL_VISIBLE)) : timeValues
+											.load(columns, r, visible[r]))
+									.toString() : format(values[r], timeUnit);
+				}
+				return result;
+			}
+
+			public StringBuilder join(StringBuilder sb, TimeValues values) {
+				// since we use non-threadsafe Formaters we have to borrow them
+				// (but only if there is a value without FastFormat)
+				Formats formats = null;
+				boolean first = true;
+				for (Bucket bucket : values) {
+					if (bucket.isVisible()) {
+						if (!first) {
+							sb.append(this.separator);
 						}
+						formats = append(sb, formats, bucket.getValue(),
+								bucket.getPosition());
+						first = false;
 					}
 				}
-				int len = sb.length();
-				return len == 0 ? "" : sb.delete(len - this.separator.length(),
-						len).toString();
+				if (formats != null) {
+					this.formats.release(formats);
+				}
+				return sb;
+			}
+
+			/**
+			 * Appends the value of the unit at bucket position
+			 * <code>idx</code>.
+			 * 
+			 * @param formats
+			 *            the Formats borrowed so far or <code>null</code>
+			 * @return the Formats borrowed (if one had to be borrowed)
+			 */
+			private Formats append(StringBuilder sb, Formats formats,
+					long value, int idx) {
+				FastFormat fastFormat = this.fastFormats[idx];
+				if (fastFormat != null && value >= 0) {
+					fastFormat.appendTo(sb, value);
+					return formats;
+				}
+				Formats result = formats == null ? this.formats.borrow()
+						: formats;
+				result.appendTo(sb, value, idx);
+				return result;
+			}
+
+		}
+
+		/**
+		 * Formatter that delegates to the configured engine and additionally
+		 * runs the reference engine on every n-th call, reporting differences
+		 * to a {@link MismatchListener}. For the sampled calls the output of
+		 * the reference engine is returned.
+		 * 
+		 * @author Peter Fichtner
+		 */
+		private static class VerifyingDurationFormatter implements
+				ExtendedDurationFormatter {
+
+			private final DurationFormatter reference;
+			private final DefaultDurationFormatter delegate;
+			private final int samplingInterval;
+			private final MismatchListener listener;
+			// racy on purpose, sampling needs no exact counts
+			private int calls;
+
+			public VerifyingDurationFormatter(DurationFormatter reference,
+					DefaultDurationFormatter delegate, int samplingInterval,
+					MismatchListener listener) {
+				this.reference = reference;
+				this.delegate = delegate;
+				this.samplingInterval = samplingInterval;
+				this.listener = listener;
+			}
+
+			private boolean sample() {
+				int calls = this.calls + 1;
+				this.calls = calls >= this.samplingInterval ? 0 : calls;
+				return calls >= this.samplingInterval;
+			}
+
+			private String verify(long value, TimeUnit timeUnit, String actual) {
+				String expected = this.reference.format(value, timeUnit);
+				if (!expected.equals(actual)) {
+					this.listener.mismatch(value, timeUnit, expected, actual);
+				}
+				return expected;
+			}
+
+			public String formatMillis(long value) {
+				return format(value, MILLISECONDS);
+			}
+
+			public String format(long value, TimeUnit timeUnit) {
+				String actual = this.delegate.format(value, timeUnit);
+				return sample() ? verify(value, timeUnit, actual) : actual;
+			}
+
+			public String format(double value, TimeUnit timeUnit) {
+				return formatTo(new StringBuilder(), value, timeUnit)
+						.toString();
+			}
+
+			public StringBuilder formatTo(StringBuilder sb, double value,
+					TimeUnit timeUnit) {
+				if (Double.isNaN(value) || Double.isInfinite(value)) {
+					return this.delegate.formatTo(sb, value, timeUnit);
+				}
+				// convert like the delegate does so the long value can be
+				// verified (and reported)
+				int idx = TimeUnits.finestIndexOf(value, timeUnit);
+				return formatTo(sb, this.delegate.convert(value, timeUnit, idx),
+						TimeUnits.timeUnit(idx));
 			}
 
-			private String getValueString(long value, TimeUnit timeUnit) {
-				Format format = this.formats.get(timeUnit);
-				return format instanceof MessageFormat ? ((MessageFormat) format)
-						.format(new Object[] { value }) : format.format(value);
+			public String[] format(long[] values, TimeUnit timeUnit) {
+				String[] result = this.delegate.format(values, timeUnit);
+				for (int i = 0; i < values.length; i++) {
+					if (sample()) {
+						result[i] = verify(values[i], timeUnit, result[i]);
+					}
+				}
+				return result;
+			}
+
+			public StringBuilder formatTo(StringBuilder sb, long value,
+					TimeUnit timeUnit) {
+				if (!sample()) {
+					return this.delegate.formatTo(sb, value, timeUnit);
+				}
+				return sb.append(verify(value, timeUnit,
+						this.delegate.format(value, timeUnit)));
+			}
+
+			public StringBuilder formatTo(StringBuilder sb,
+					TimeValues timeValues, long value, TimeUnit timeUnit) {
+				if (!sample()) {
+					return this.delegate.formatTo(sb, timeValues, value,
+							timeUnit);
+				}
+				int len = sb.length();
+				String actual = this.delegate.formatTo(sb, timeValues, value,
+						timeUnit).substring(len);
+				sb.setLength(len);
+				return sb.append(verify(value, timeUnit, actual));
 			}
 
 		}
@@ -597,28 +1844,256 @@ public interface DurationFormatter {
 		public static final Builder SYMBOLS = BASE.separator(" ")
 				.symbol(NANOSECONDS, "ns").symbol(MICROSECONDS, "μs")
 				.symbol(MILLISECONDS, "ms").symbol(SECONDS, "s")
-				.symbol(MINUTES, "min").symbol(HOURS, "h").symbol(DAYS, "d");
+				.symbol(MINUTES, "min").symbol(HOURS, "h").symbol(DAYS, "d")
+				.weeksSymbol("w");
 
 		private int maximumAmountOfUnitsToShow = Integer.MAX_VALUE;
 		private String separator = ":";
 		private TimeUnit minimum = MILLISECONDS;
 		private TimeUnit maximum = HOURS;
+		private boolean weeks;
 		private boolean round = true;
 		private Set<SuppressZeros> suppressZeros = DEFAULT_SUPPRESS_MODE;
+		private Engine engine = Engine.REFERENCE;
+		private int samplingInterval;
+		private MismatchListener mismatchListener;
+		private DurationFormatter verificationReference;
+		private int precomputeThreshold = 8192;
+		private File precomputeDirectory;
+		private int warmUpIterations;
+		private WarmUpListener warmUpListener;
+		private ExplainListener explainListener;
+		private String nan = "NaN";
+		private String positiveInfinity = "∞";
+		private String negativeInfinity = "-∞";
 
 		public DurationFormatter build() {
-			return new DefaultDurationFormatter(this);
+			Object event = EVENTS.beginBuild();
+			DefaultDurationFormatter defaultFormatter = new DefaultDurationFormatter(
+					this);
+			DurationFormatter formatter = this.mismatchListener == null
+					|| this.engine == Engine.REFERENCE ? defaultFormatter
+					: new VerifyingDurationFormatter(
+							this.verificationReference == null ? engine(
+									Engine.REFERENCE).warmUp(0, null)
+									.explain(null).build()
+									: this.verificationReference,
+							defaultFormatter,
+							this.samplingInterval, this.mismatchListener);
+			if (this.warmUpIterations > 0) {
+				WarmUp.run(formatter, this.minimum, this.maximum,
+						this.warmUpIterations, this.warmUpListener);
+			}
+			EVENTS.endBuild(event, this);
+			return formatter;
 		}
 
-		public Builder valueSymbolSeparator(String separator) {
+		/**
+		 * Sets the engine used for formatting, defaults to
+		 * {@link Engine#REFERENCE}.
+		 * 
+		 * @param engine
+		 *            the engine to use
+		 * @return new Builder instance
+		 */
+		public Builder engine(Engine engine) {
+			Builder clone = clone();
+			clone.engine = engine;
+			return clone;
+		}
+
+		/**
+		 * Sets the maximum amount of entries the {@link Engine#FAST} engine
+		 * precomputes. If all outputs for durations below one unit greater
+		 * than the maximum (e.g. below one hour for <code>mm:ss</code>) fit
+		 * into this amount of entries they are computed when the formatter
+		 * is built and looked up when formatting. Defaults to 8192, 0
+		 * disables precomputing.
+		 * 
+		 * @param maximumEntries
+		 *            the maximum amount of entries to precompute
+		 * @return new Builder instance
+		 */
+		public Builder precompute(int maximumEntries) {
+			Builder clone = clone();
+			clone.precomputeThreshold = maximumEntries;
+			return clone;
+		}
+
+		/**
+		 * Persists the outputs precomputed by the {@link Engine#FAST} engine
+		 * (see {@link #precompute(int)}) to files inside the passed directory.
+		 * When building a formatter whose outputs were stored before they are
+		 * read from the file (memory mapped) instead of being computed. Files
+		 * are verified by a checksum and a fingerprint of the formatter, if
+		 * the file is missing, corrupt or was written by a formatter with
+		 * another configuration the outputs are computed and the file is
+		 * (re)written. Errors are not reported but fall back to computing.
+		 * 
+		 * @param directory
+		 *            the directory to store the files in,
+		 *            <code>null</code> disables persisting (default)
+		 * @return new Builder instance
+		 */
+		public Builder precomputeDirectory(File directory) {
+			Builder clone = clone();
+			clone.precomputeDirectory = directory;
+			return clone;
+		}
+
+		/**
+		 * Additionally runs the {@link Engine#REFERENCE} engine on every
+		 * <code>samplingInterval</code>-th value formatted and reports
+		 * differences to the passed listener. Has no effect if the engine is
+		 * {@link Engine#REFERENCE}.
+		 * 
+		 * @param samplingInterval
+		 *            verify every n-th value (1 verifies every value)
+		 * @param listener
+		 *            listener to inform about differences, <code>null</code>
+		 *            disables verification
+		 * @return new Builder instance
+		 */
+		public Builder verify(int samplingInterval, MismatchListener listener) {
+			checkState(samplingInterval > 0, "samplingInterval must be positive");
+			Builder clone = clone();
+			clone.samplingInterval = samplingInterval;
+			clone.mismatchListener = listener;
+			return clone;
+		}
+
+		/**
+		 * Replaces the reference the formatters built are verified against
+		 * (see {@link #verify(int, MismatchListener)}), allows tests to
+		 * provoke mismatches.
+		 * 
+		 * @param reference
+		 *            the formatter to compare with, <code>null</code> builds
+		 *            one using {@link Engine#REFERENCE}
+		 * @return new Builder instance
+		 */
+		Builder verifyAgainst(DurationFormatter reference) {
+			Builder clone = clone();
+			clone.verificationReference = reference;
+			return clone;
+		}
+
+		/**
+		 * Warms up the formatters built: before {@link #build()} returns all
+		 * paths of the formatter (all units between minimum and maximum and
+		 * their neighbours, rounding edges, negative values, all format
+		 * methods) are executed <code>iterations</code> times, so classes are
+		 * loaded and the JIT compiled the code before serving traffic.
+		 * 
+		 * @param iterations
+		 *            how often to execute the paths, 0 disables warming up
+		 *            (default)
+		 * @param listener
+		 *            listener informed about the latency of the first call and
+		 *            the steady state latency (e.g. for readiness probes), may
+		 *            be <code>null</code>
+		 * @return new Builder instance
+		 */
+		public Builder warmUp(int iterations, WarmUpListener listener) {
+			checkState(iterations >= 0, "iterations must not be negative");
 			Builder clone = clone();
+			clone.warmUpIterations = iterations;
+			clone.warmUpListener = listener;
+			return clone;
+		}
+
+		/**
+		 * Informs the passed listener about each step of the strategies
+		 * (elapsed nanoseconds and the values and visibility of all units
+		 * after the step), e.g. a {@link StrategyProfile} or a
+		 * {@link StrategyTrace}. While explaining, the {@link Engine#FAST}
+		 * engine neither looks up precomputed outputs nor uses its closed
+		 * form, so each call runs the strategies (including the calls done by
+		 * {@link #warmUp(int, WarmUpListener)}). Formatters built without a
+		 * listener do not contain any explaining code.
+		 * 
+		 * @param listener
+		 *            the listener to inform, <code>null</code> disables
+		 *            explaining (default)
+		 * @return new Builder instance
+		 */
+		public Builder explain(ExplainListener listener) {
+			Builder clone = clone();
+			clone.explainListener = listener;
+			return clone;
+		}
+
+		/**
+		 * Sets the Strings used for values that are no durations when
+		 * formatting doubles (see
+		 * {@link DurationFormatters#format(DurationFormatter, double, TimeUnit)}
+		 * ), defaults to <code>NaN</code>, <code>∞</code> and <code>-∞</code>.
+		 * 
+		 * @param nan
+		 *            String for {@link Double#NaN}
+		 * @param positiveInfinity
+		 *            String for {@link Double#POSITIVE_INFINITY}
+		 * @param negativeInfinity
+		 *            String for {@link Double#NEGATIVE_INFINITY}
+		 * @return new Builder instance
+		 */
+		public Builder nonFinite(String nan, String positiveInfinity,
+				String negativeInfinity) {
+			Builder clone = clone();
+			clone.nan = nan;
+			clone.positiveInfinity = positiveInfinity;
+			clone.negativeInfinity = negativeInfinity;
+			return clone;
+		}
+
+		/**
+		 * Returns the String configured for the passed NaN or infinite value.
+		 */
+		String nonFiniteText(double value) {
+			return Double.isNaN(value) ? this.nan
+					: value > 0 ? this.positiveInfinity : this.negativeInfinity;
+		}
+
+		public Builder valueSymbolSeparator(String separator) {
+			Builder clone = cloneWithFormatGenerators();
 			clone.formatGenerators.valueSymbolSeparator(separator);
 			return clone;
 		}
 
+		/**
+		 * Sets the greatest unit to show, durations not fitting into it are
+		 * shown as a multiple of it. The greatest {@link TimeUnit} is
+		 * {@link TimeUnit#DAYS} (e.g. three years are shown as
+		 * <code>1095d</code>), see {@link #weeks(boolean)} for showing weeks.
+		 * Disables showing weeks.
+		 * 
+		 * @param maximum
+		 *            the greatest unit to show
+		 * @return new Builder instance
+		 */
 		public Builder maximum(TimeUnit maximum) {
 			Builder clone = clone();
 			clone.maximum = maximum;
+			clone.weeks = false;
+			return clone;
+		}
+
+		/**
+		 * Shows weeks (seven days) as the greatest unit, in front of
+		 * {@link TimeUnit#DAYS} (e.g. three years are shown as
+		 * <code>156w 3d</code>). Sets the maximum to DAYS, calling
+		 * {@link #maximum(TimeUnit)} afterwards disables showing weeks again.
+		 * Weeks are formatted as digits unless a symbol is set using
+		 * {@link #weeksSymbol(String)}, there are no months or years.
+		 * 
+		 * @param weeks
+		 *            <code>true</code> to show weeks
+		 * @return new Builder instance
+		 */
+		public Builder weeks(boolean weeks) {
+			Builder clone = clone();
+			clone.maximum = DAYS;
+			clone.weeks = weeks;
 			return clone;
 		}
 
@@ -661,7 +2136,7 @@ public interface DurationFormatter {
 
 		@Deprecated
 		public Builder leadingZeros(boolean leadingZeros) {
-			Builder clone = clone();
+			Builder clone = cloneWithFormatGenerators();
 			clone.formatGenerators.leadingZeros = leadingZeros;
 			return clone;
 		}
@@ -677,9 +2152,24 @@ public interface DurationFormatter {
 					new ChoiceSymbolFormatGenerator(singular, plural));
 		}
 
+		/**
+		 * Sets the symbol of weeks, see {@link #weeks(boolean)}.
+		 * 
+		 * @param symbol
+		 *            symbol to use
+		 * @return new Builder instance
+		 */
+		public Builder weeksSymbol(String symbol) {
+			Builder clone = cloneWithFormatGenerators();
+			clone.formatGenerators
+					.useWeeksFormatGenerator(new AppendSymbolFormatGenerator(
+							symbol));
+			return clone;
+		}
+
 		public Builder useFormatGenerator(TimeUnit timeUnit,
 				FormatGenerator value) {
-			Builder clone = clone();
+			Builder clone = cloneWithFormatGenerators();
 			clone.formatGenerators.useFormatGenerator(timeUnit, value);
 			return clone;
 		}
@@ -716,12 +2206,49 @@ public interface DurationFormatter {
 			return clone;
 		}
 
+		TimeUnit getMinimum() {
+			return this.minimum;
+		}
+
+		TimeUnit getMaximum() {
+			return this.maximum;
+		}
+
+		boolean isWeeks() {
+			return this.weeks;
+		}
+
+		int getMaximumAmountOfUnitsToShow() {
+			return this.maximumAmountOfUnitsToShow;
+		}
+
+		boolean isRound() {
+			return this.round;
+		}
+
+		/**
+		 * Returns a shallow copy, the FormatGenerators are shared and have to
+		 * be copied before modifying them, see
+		 * {@link #cloneWithFormatGenerators()}.
+		 */
 		@Override
 		protected Builder clone() {
 			try {
-				Builder clone = (Builder) super.clone();
-				clone.formatGenerators = this.formatGenerators.clone();
-				return clone;
+				return (Builder) super.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private Builder cloneWithFormatGenerators() {
+			Builder clone = clone();
+			clone.formatGenerators = copy(this.formatGenerators);
+			return clone;
+		}
+
+		private static FormatGenerators copy(FormatGenerators formatGenerators) {
+			try {
+				return formatGenerators.clone();
 			} catch (CloneNotSupportedException e) {
 				throw new RuntimeException(e);
 			}
@@ -733,21 +2260,275 @@ public interface DurationFormatter {
 		// - size -
 		// -------------------------------------------------------------------------
 
+		@Override
+		public String toString() {
+			return "Builder [minimum=" + this.minimum + ", maximum="
+					+ this.maximum + ", weeks=" + this.weeks + ", separator="
+					+ this.separator
+					+ ", round=" + this.round + ", suppressZeros="
+					+ this.suppressZeros + ", maximumAmountOfUnitsToShow="
+					+ this.maximumAmountOfUnitsToShow + ", engine="
+					+ this.engine + "]";
+		}
+
 		private static void checkState(boolean state, String errorMessage) {
 			if (!state) {
 				throw new IllegalStateException(errorMessage);
 			}
 		}
 
-		private static <T> int indexOf(List<T> ts, Object search) {
-			int i = 0;
-			for (T t : ts) {
-				if (search.equals(t)) {
-					return i;
-				}
-				i++;
+	}
+
+	/**
+	 * Collects the options of a formatter without creating a copy per option
+	 * like the {@link Builder} does, intended for formatters built per
+	 * request (e.g. from user preferences). All methods modify this instance
+	 * and return it. The base Builder is copied on the first modification
+	 * only, and after {@link #build()} only once more if this instance is
+	 * modified afterwards, so formatters already built are never affected.
+	 * This class is <b>not</b> threadsafe.
+	 * 
+	 * @author Peter Fichtner
+	 */
+	public static final class FormatterSpec {
+
+		private Builder builder;
+
+		/**
+		 * <code>true</code> if {@link #builder} is shared (with the base or
+		 * a formatter built) and has to be copied before modifying it
+		 */
+		private boolean shared = true;
+
+		/**
+		 * <code>true</code> if the FormatGenerators of {@link #builder} are
+		 * shared and have to be copied before modifying them
+		 */
+		private boolean formatGeneratorsShared = true;
+
+		/**
+		 * Creates a FormatterSpec starting with the options of
+		 * {@link Builder#DIGITS}.
+		 */
+		public FormatterSpec() {
+			this(Builder.DIGITS);
+		}
+
+		/**
+		 * Creates a FormatterSpec starting with the options of the passed
+		 * Builder.
+		 * 
+		 * @param base
+		 *            the Builder providing the initial options
+		 */
+		public FormatterSpec(Builder base) {
+			this.builder = base;
+		}
+
+		private Builder mutable() {
+			if (this.shared) {
+				this.builder = this.builder.clone();
+				this.shared = false;
+				this.formatGeneratorsShared = true;
 			}
-			return -1;
+			return this.builder;
+		}
+
+		private Builder.FormatGenerators formatGenerators() {
+			Builder builder = mutable();
+			if (this.formatGeneratorsShared) {
+				builder.formatGenerators = Builder
+						.copy(builder.formatGenerators);
+				this.formatGeneratorsShared = false;
+			}
+			return builder.formatGenerators;
+		}
+
+		/**
+		 * @see Builder#engine(Engine)
+		 */
+		public FormatterSpec engine(Engine engine) {
+			mutable().engine = engine;
+			return this;
+		}
+
+		/**
+		 * @see Builder#precompute(int)
+		 */
+		public FormatterSpec precompute(int maximumEntries) {
+			mutable().precomputeThreshold = maximumEntries;
+			return this;
+		}
+
+		/**
+		 * @see Builder#precomputeDirectory(File)
+		 */
+		public FormatterSpec precomputeDirectory(File directory) {
+			mutable().precomputeDirectory = directory;
+			return this;
+		}
+
+		/**
+		 * @see Builder#verify(int, MismatchListener)
+		 */
+		public FormatterSpec verify(int samplingInterval,
+				MismatchListener listener) {
+			Builder.checkState(samplingInterval > 0,
+					"samplingInterval must be positive");
+			Builder builder = mutable();
+			builder.samplingInterval = samplingInterval;
+			builder.mismatchListener = listener;
+			return this;
+		}
+
+		/**
+		 * @see Builder#warmUp(int, WarmUpListener)
+		 */
+		public FormatterSpec warmUp(int iterations, WarmUpListener listener) {
+			Builder.checkState(iterations >= 0,
+					"iterations must not be negative");
+			Builder builder = mutable();
+			builder.warmUpIterations = iterations;
+			builder.warmUpListener = listener;
+			return this;
+		}
+
+		/**
+		 * @see Builder#explain(ExplainListener)
+		 */
+		public FormatterSpec explain(ExplainListener listener) {
+			mutable().explainListener = listener;
+			return this;
+		}
+
+		/**
+		 * @see Builder#nonFinite(String, String, String)
+		 */
+		public FormatterSpec nonFinite(String nan, String positiveInfinity,
+				String negativeInfinity) {
+			Builder builder = mutable();
+			builder.nan = nan;
+			builder.positiveInfinity = positiveInfinity;
+			builder.negativeInfinity = negativeInfinity;
+			return this;
+		}
+
+		public FormatterSpec valueSymbolSeparator(String separator) {
+			formatGenerators().valueSymbolSeparator(separator);
+			return this;
+		}
+
+		public FormatterSpec maximum(TimeUnit maximum) {
+			Builder builder = mutable();
+			builder.maximum = maximum;
+			builder.weeks = false;
+			return this;
+		}
+
+		/**
+		 * @see Builder#weeks(boolean)
+		 */
+		public FormatterSpec weeks(boolean weeks) {
+			Builder builder = mutable();
+			builder.maximum = DAYS;
+			builder.weeks = weeks;
+			return this;
+		}
+
+		public FormatterSpec minimum(TimeUnit minimum) {
+			mutable().minimum = minimum;
+			return this;
+		}
+
+		/**
+		 * @see Builder#useOnly(TimeUnit)
+		 */
+		public FormatterSpec useOnly(TimeUnit timeUnit) {
+			return minimum(timeUnit).maximum(timeUnit);
+		}
+
+		public FormatterSpec round(boolean round) {
+			mutable().round = round;
+			return this;
+		}
+
+		/**
+		 * @see Builder#separator(String)
+		 */
+		public FormatterSpec separator(String separator) {
+			mutable().separator = separator;
+			return this;
+		}
+
+		public FormatterSpec symbol(TimeUnit timeUnit, String symbol) {
+			return useFormatGenerator(timeUnit,
+					new Builder.AppendSymbolFormatGenerator(symbol));
+		}
+
+		public FormatterSpec symbolChoice(TimeUnit timeUnit, String singular,
+				String plural) {
+			return useFormatGenerator(timeUnit,
+					new Builder.ChoiceSymbolFormatGenerator(singular, plural));
+		}
+
+		/**
+		 * @see Builder#weeksSymbol(String)
+		 */
+		public FormatterSpec weeksSymbol(String symbol) {
+			formatGenerators().useWeeksFormatGenerator(
+					new Builder.AppendSymbolFormatGenerator(symbol));
+			return this;
+		}
+
+		public FormatterSpec useFormatGenerator(TimeUnit timeUnit,
+				Builder.FormatGenerator value) {
+			formatGenerators().useFormatGenerator(timeUnit, value);
+			return this;
+		}
+
+		public FormatterSpec suppressZeros(SuppressZeros... suppressZeros) {
+			return suppressZeros(Arrays.asList(suppressZeros));
+		}
+
+		public FormatterSpec suppressZeros(
+				Collection<SuppressZeros> suppressZeros) {
+			mutable().suppressZeros = suppressZeros == null ? Builder.DEFAULT_SUPPRESS_MODE
+					: EnumSet.copyOf(suppressZeros);
+			return this;
+		}
+
+		/**
+		 * @see Builder#maximumAmountOfUnitsToShow(int)
+		 */
+		public FormatterSpec maximumAmountOfUnitsToShow(
+				int maximumAmountOfUnitsToShow) {
+			mutable().maximumAmountOfUnitsToShow = maximumAmountOfUnitsToShow;
+			return this;
+		}
+
+		/**
+		 * Builds a formatter using the options collected so far.
+		 * 
+		 * @return new DurationFormatter
+		 */
+		public DurationFormatter build() {
+			this.shared = true;
+			return this.builder.build();
+		}
+
+		/**
+		 * Returns a Builder having the options collected so far.
+		 * 
+		 * @return Builder instance
+		 */
+		public Builder toBuilder() {
+			this.shared = true;
+			return this.builder;
+		}
+
+		@Override
+		public String toString() {
+			return "FormatterSpec [" + this.builder + "]";
 		}
 
 	}
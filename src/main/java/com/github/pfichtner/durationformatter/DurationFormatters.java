@@ -0,0 +1,159 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+
+/**
+ * Additional operations for {@link DurationFormatter}s. Formatters created by
+ * the {@link DurationFormatter.Builder} implement them without intermediate
+ * Strings, for all other implementations they fall back to
+ * {@link DurationFormatter#format(long, TimeUnit)}.
+ *
+ * @author Peter Fichtner
+ */
+public final class DurationFormatters {
+
+	private DurationFormatters() {
+		super();
+	}
+
+	/**
+	 * Format the passed (fractional) duration. The value is split into its
+	 * whole and fractional part and converted to the finest TimeUnit it fits
+	 * into so no precision is lost before the duration is rounded to the
+	 * minimum of the formatter. NaN and infinite values are rendered as
+	 * configured by
+	 * {@link DurationFormatter.Builder#nonFinite(String, String, String)}
+	 * (using its defaults for formatters not created by a Builder).
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return String containing the duration
+	 */
+	public static String format(DurationFormatter formatter, double value,
+			TimeUnit timeUnit) {
+		return formatter instanceof ExtendedDurationFormatter ? ((ExtendedDurationFormatter) formatter)
+				.format(value, timeUnit) : formatTo(formatter,
+				new StringBuilder(), value, timeUnit).toString();
+	}
+
+	/**
+	 * Format all passed durations. The result is the same as calling
+	 * {@link DurationFormatter#format(long, TimeUnit)} for each value but
+	 * formatters created by a Builder decompose the values and apply their
+	 * strategies column-wise (one primitive array per TimeUnit) at once, only
+	 * the Strings are joined per value.
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param values
+	 *            the durations to format
+	 * @param timeUnit
+	 *            the TimeUnit of all <code>values</code>
+	 * @return Strings containing the durations (same order as
+	 *         <code>values</code>)
+	 */
+	public static String[] format(DurationFormatter formatter, long[] values,
+			TimeUnit timeUnit) {
+		if (formatter instanceof ExtendedDurationFormatter) {
+			return ((ExtendedDurationFormatter) formatter).format(values,
+					timeUnit);
+		}
+		String[] result = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = formatter.format(values[i], timeUnit);
+		}
+		return result;
+	}
+
+	/**
+	 * Format the passed duration and append it to the passed StringBuilder.
+	 * Allows formatting many durations into one reused buffer without
+	 * creating a String per duration.
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return the passed StringBuilder
+	 */
+	public static StringBuilder formatTo(DurationFormatter formatter,
+			StringBuilder sb, long value, TimeUnit timeUnit) {
+		return formatter instanceof ExtendedDurationFormatter ? ((ExtendedDurationFormatter) formatter)
+				.formatTo(sb, value, timeUnit) : sb.append(formatter.format(
+				value, timeUnit));
+	}
+
+	/**
+	 * Format the passed (fractional) duration and append it to the passed
+	 * StringBuilder, see {@link #format(DurationFormatter, double, TimeUnit)}.
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return the passed StringBuilder
+	 */
+	public static StringBuilder formatTo(DurationFormatter formatter,
+			StringBuilder sb, double value, TimeUnit timeUnit) {
+		if (formatter instanceof ExtendedDurationFormatter) {
+			return ((ExtendedDurationFormatter) formatter).formatTo(sb, value,
+					timeUnit);
+		}
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			// no configuration of its own, use the one of the Builder defaults
+			return sb.append(DurationFormatter.Builder.DIGITS
+					.nonFiniteText(value));
+		}
+		int idx = TimeUnits.finestIndexOf(value, timeUnit);
+		return sb.append(formatter.format(
+				TimeUnits.convert(value, timeUnit, idx, true),
+				TimeUnits.timeUnit(idx)));
+	}
+
+	/**
+	 * Format the passed duration and append it to the passed StringBuilder
+	 * using the passed TimeValues for the decomposition instead of creating a
+	 * new one. Callers can keep one TimeValues per thread, its state is
+	 * replaced on each call. Formatters not created by a Builder do not use
+	 * the TimeValues. Only formatters built with {@link Engine#FAST} whose
+	 * configuration has an optimized path do not allocate at all (given
+	 * <code>sb</code> has enough capacity), formatters using the
+	 * {@link Engine#REFERENCE} engine still allocate within the java.text
+	 * Formats.
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @param timeValues
+	 *            the (caller owned, not shared between threads) TimeValues to
+	 *            reuse
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return the passed StringBuilder
+	 */
+	public static StringBuilder formatTo(DurationFormatter formatter,
+			StringBuilder sb, TimeValues timeValues, long value,
+			TimeUnit timeUnit) {
+		return formatter instanceof ExtendedDurationFormatter ? ((ExtendedDurationFormatter) formatter)
+				.formatTo(sb, timeValues, value, timeUnit) : sb
+				.append(formatter.format(value, timeUnit));
+	}
+
+}
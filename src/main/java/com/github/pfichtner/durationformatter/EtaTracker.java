@@ -0,0 +1,174 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the remaining time of a progress (e.g. a download) and renders
+ * it using a {@link DurationFormatter} (see
+ * {@link DurationFormatter.Builder#maximumAmountOfUnitsToShow(int)}). The
+ * rate is an exponentially weighted moving average whose weight depends on
+ * the time elapsed between two updates, so it does not matter how often (e.g.
+ * for every I/O chunk) or how regular updates are done. Until one time
+ * constant has passed since the first update the plain average rate is used.
+ * Updates are O(1) and do not create any objects. Instances are not
+ * threadsafe.
+ * 
+ * @author Peter Fichtner
+ */
+public class EtaTracker {
+
+	private final DurationFormatter formatter;
+	private final long timeConstant;
+	private final TimeValues timeValues = new TimeValues();
+	private String unknown = "?";
+
+	private boolean started;
+	private long startNanos;
+	private long startDone;
+	private long lastNanos;
+	private long done;
+	private long total;
+	/**
+	 * units per nanosecond
+	 */
+	private double rate;
+
+	/**
+	 * Creates a new EtaTracker with a time constant of 5 seconds.
+	 * 
+	 * @param formatter
+	 *            the formatter to render the remaining time
+	 */
+	public EtaTracker(DurationFormatter formatter) {
+		this(formatter, 5, SECONDS);
+	}
+
+	/**
+	 * Creates a new EtaTracker.
+	 * 
+	 * @param formatter
+	 *            the formatter to render the remaining time
+	 * @param timeConstant
+	 *            the time constant of the moving average, the longer the
+	 *            smoother (but slower to follow changes) the rate is
+	 * @param timeUnit
+	 *            the TimeUnit of <code>timeConstant</code>
+	 */
+	public EtaTracker(DurationFormatter formatter, long timeConstant,
+			TimeUnit timeUnit) {
+		this.formatter = formatter;
+		this.timeConstant = Math.max(1, timeUnit.toNanos(timeConstant));
+	}
+
+	/**
+	 * Sets the text rendered when the remaining time is unknown, defaults to
+	 * <code>?</code>.
+	 * 
+	 * @param unknown
+	 *            text for unknown remaining times
+	 * @return this EtaTracker
+	 */
+	public EtaTracker unknown(String unknown) {
+		this.unknown = unknown;
+		return this;
+	}
+
+	public void update(long done, long total) {
+		update(done, total, nanoTime());
+	}
+
+	/**
+	 * Reports the progress.
+	 * 
+	 * @param done
+	 *            the amount done so far (e.g. bytes)
+	 * @param total
+	 *            the total amount
+	 * @param nanoTime
+	 *            the time of the progress as returned by
+	 *            {@link System#nanoTime()}
+	 */
+	public void update(long done, long total, long nanoTime) {
+		if (!this.started) {
+			this.started = true;
+			this.startNanos = this.lastNanos = nanoTime;
+			this.startDone = this.done = done;
+			this.total = total;
+			return;
+		}
+		long elapsed = Math.max(0, nanoTime - this.lastNanos);
+		long sinceStart = nanoTime - this.startNanos;
+		if (sinceStart < this.timeConstant) {
+			this.rate = sinceStart <= 0 ? 0 : (double) (done - this.startDone)
+					/ sinceStart;
+		} else {
+			// rate += alpha * (delta / elapsed - rate) with
+			// alpha = elapsed / (elapsed + timeConstant)
+			this.rate += ((done - this.done) - this.rate * elapsed)
+					/ (elapsed + this.timeConstant);
+		}
+		this.lastNanos = nanoTime;
+		this.done = done;
+		this.total = total;
+	}
+
+	/**
+	 * Returns the estimated rate.
+	 * 
+	 * @param timeUnit
+	 *            the TimeUnit the rate should be for
+	 * @return the amount per <code>timeUnit</code>
+	 */
+	public double rate(TimeUnit timeUnit) {
+		return this.rate * timeUnit.toNanos(1);
+	}
+
+	/**
+	 * Returns the estimated remaining time (measured from the last update).
+	 * 
+	 * @return the remaining nanoseconds or -1 if unknown (no progress yet)
+	 */
+	public long remainingNanos() {
+		long remaining = this.total - this.done;
+		if (remaining <= 0) {
+			return this.started ? 0 : -1;
+		}
+		if (this.rate <= 0) {
+			return -1;
+		}
+		double nanos = remaining / this.rate;
+		return nanos >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) nanos;
+	}
+
+	/**
+	 * Appends the remaining time (or the text for unknown remaining times).
+	 * 
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @return the passed StringBuilder
+	 */
+	public StringBuilder formatRemainingTo(StringBuilder sb) {
+		long remaining = remainingNanos();
+		return remaining < 0 ? sb.append(this.unknown) : DurationFormatters
+				.formatTo(this.formatter, sb, this.timeValues, remaining,
+						NANOSECONDS);
+	}
+
+	public String formatRemaining() {
+		return formatRemainingTo(new StringBuilder()).toString();
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	@Override
+	public String toString() {
+		return "EtaTracker [done=" + this.done + ", total=" + this.total
+				+ ", remainingNanos=" + remainingNanos() + "]";
+	}
+
+}
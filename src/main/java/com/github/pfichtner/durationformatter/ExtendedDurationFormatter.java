@@ -0,0 +1,44 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The additional operations of the formatters created by the
+ * {@link DurationFormatter.Builder}. They are not part of
+ * {@link DurationFormatter} so implementations outside of this library do not
+ * have to implement them, callers use them via {@link DurationFormatters}.
+ *
+ * @author Peter Fichtner
+ */
+interface ExtendedDurationFormatter extends DurationFormatter {
+
+	/**
+	 * @see DurationFormatters#format(DurationFormatter, double, TimeUnit)
+	 */
+	String format(double value, TimeUnit timeUnit);
+
+	/**
+	 * @see DurationFormatters#format(DurationFormatter, long[], TimeUnit)
+	 */
+	String[] format(long[] values, TimeUnit timeUnit);
+
+	/**
+	 * @see DurationFormatters#formatTo(DurationFormatter, StringBuilder, long,
+	 *      TimeUnit)
+	 */
+	StringBuilder formatTo(StringBuilder sb, long value, TimeUnit timeUnit);
+
+	/**
+	 * @see DurationFormatters#formatTo(DurationFormatter, StringBuilder,
+	 *      double, TimeUnit)
+	 */
+	StringBuilder formatTo(StringBuilder sb, double value, TimeUnit timeUnit);
+
+	/**
+	 * @see DurationFormatters#formatTo(DurationFormatter, StringBuilder,
+	 *      TimeValues, long, TimeUnit)
+	 */
+	StringBuilder formatTo(StringBuilder sb, TimeValues timeValues,
+			long value, TimeUnit timeUnit);
+
+}
@@ -0,0 +1,42 @@
+package com.github.pfichtner.durationformatter;
+
+/**
+ * The interfaces of <code>java.util.concurrent.Flow</code> redefined since
+ * they are not available on the JDKs this library supports. Each method has
+ * the same contract as its JDK counterpart so bridging is a matter of
+ * delegating each call (on Java 9 and later see
+ * <code>flow.FlowAdapters</code>, artifact with classifier <code>flow</code>).
+ * 
+ * @author Peter Fichtner
+ */
+public interface Flow {
+
+	public static interface Publisher<T> {
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	public static interface Subscriber<T> {
+
+		void onSubscribe(Subscription subscription);
+
+		void onNext(T item);
+
+		void onError(Throwable throwable);
+
+		void onComplete();
+
+	}
+
+	public static interface Subscription {
+
+		void request(long n);
+
+		void cancel();
+
+	}
+
+	public static interface Processor<T, R> extends Subscriber<T>,
+			Publisher<R> {
+	}
+
+}
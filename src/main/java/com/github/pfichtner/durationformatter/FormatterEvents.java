@@ -0,0 +1,61 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hooks to report what formatters do (building, formatting, creating Formats
+ * when the pool is empty) to the Java Flight Recorder. This class does
+ * nothing, if <code>jdk.jfr</code> is available {@link #INSTANCE} is a
+ * <code>JfrFormatterEvents</code> (compiled for Java 11 into
+ * META-INF/versions/11). Each <code>begin</code> method returns
+ * <code>null</code> if the corresponding event is disabled, the
+ * <code>end</code> methods ignore <code>null</code>s.
+ * 
+ * @author Peter Fichtner
+ */
+class FormatterEvents {
+
+	static final FormatterEvents INSTANCE = load();
+
+	private static FormatterEvents load() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			String name = FormatterEvents.class.getPackage().getName()
+					+ ".JfrFormatterEvents";
+			return (FormatterEvents) Class.forName(name)
+					.getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			// no jdk.jfr or running on a JDK older than 11 (the class is
+			// only part of META-INF/versions/11)
+			return new FormatterEvents();
+		} catch (LinkageError e) {
+			// jdk.jfr not usable
+			return new FormatterEvents();
+		}
+	}
+
+	Object beginBuild() {
+		return null;
+	}
+
+	void endBuild(Object event, Object configuration) {
+		// noop
+	}
+
+	Object beginFormat() {
+		return null;
+	}
+
+	void endFormat(Object event, long value, TimeUnit timeUnit) {
+		// noop
+	}
+
+	Object beginFormatsCreation() {
+		return null;
+	}
+
+	void endFormatsCreation(Object event) {
+		// noop
+	}
+
+}
@@ -0,0 +1,363 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.Flow.Processor;
+import com.github.pfichtner.durationformatter.Flow.Subscriber;
+import com.github.pfichtner.durationformatter.Flow.Subscription;
+
+/**
+ * Processor that consumes a stream of durations and publishes the formatted
+ * Strings in the same order. Formatting is done in batches on an
+ * {@link Executor} so neither the upstream nor the downstream thread is
+ * stalled and several batches can be formatted in parallel. Backpressure is
+ * honored in both directions: never more than <code>bufferSize</code> items
+ * are requested from upstream ahead of what the downstream consumed and never
+ * more items are delivered downstream than requested (see {@link Flow}).
+ *
+ * @author Peter Fichtner
+ */
+public class FormattingProcessor implements
+		Processor<FormattingProcessor.Value, String> {
+
+	/**
+	 * A duration to format.
+	 */
+	public static class Value {
+
+		private final long value;
+		private final TimeUnit timeUnit;
+
+		public Value(long value, TimeUnit timeUnit) {
+			this.value = value;
+			this.timeUnit = timeUnit;
+		}
+
+		public static Value of(long value, TimeUnit timeUnit) {
+			return new Value(value, timeUnit);
+		}
+
+		public long getValue() {
+			return this.value;
+		}
+
+		public TimeUnit getTimeUnit() {
+			return this.timeUnit;
+		}
+
+		@Override
+		public String toString() {
+			return "Value [value=" + this.value + ", timeUnit="
+					+ this.timeUnit + "]";
+		}
+
+	}
+
+	private class Batch extends FutureTask<String[]> {
+
+		public Batch(final List<Value> values) {
+			super(new Callable<String[]>() {
+				public String[] call() {
+					String[] result = new String[values.size()];
+					for (int i = 0; i < result.length; i++) {
+						Value value = values.get(i);
+						result[i] = FormattingProcessor.this.formatter.format(
+								value.getValue(), value.getTimeUnit());
+					}
+					return result;
+				}
+			});
+		}
+
+		@Override
+		protected void done() {
+			drain();
+		}
+
+	}
+
+	private final DurationFormatter formatter;
+	private final Executor executor;
+	private final int batchSize;
+	private final int bufferSize;
+
+	private final Queue<Batch> inFlight = new LinkedList<Batch>();
+
+	private List<Value> batch;
+	private String[] current;
+	private int currentIdx;
+
+	private Subscription upstream;
+	private Subscriber<? super String> downstream;
+	private long demand;
+	private int consumed;
+	private boolean upstreamDone;
+	private Throwable error;
+	private boolean terminated;
+	private boolean emitting;
+	private boolean missed;
+
+	/**
+	 * Creates a new processor.
+	 *
+	 * @param formatter
+	 *            the formatter to use
+	 * @param executor
+	 *            the executor the batches are formatted on
+	 * @param batchSize
+	 *            the maximum amount of values formatted in one task
+	 * @param bufferSize
+	 *            the maximum amount of values requested from upstream but not
+	 *            yet consumed by the downstream, must not be smaller than
+	 *            <code>batchSize</code>
+	 */
+	public FormattingProcessor(DurationFormatter formatter, Executor executor,
+			int batchSize, int bufferSize) {
+		checkArgument(batchSize > 0, "batchSize must be positive");
+		checkArgument(bufferSize >= batchSize,
+				"bufferSize must not be smaller than batchSize");
+		this.formatter = formatter;
+		this.executor = executor;
+		this.batchSize = batchSize;
+		this.bufferSize = bufferSize;
+		this.batch = new ArrayList<Value>(batchSize);
+	}
+
+	public void subscribe(Subscriber<? super String> subscriber) {
+		synchronized (this) {
+			if (this.downstream == null) {
+				this.downstream = subscriber;
+				subscriber = null;
+			}
+		}
+		if (subscriber != null) {
+			subscriber.onSubscribe(new Subscription() {
+				public void request(long n) {
+					// noop
+				}
+
+				public void cancel() {
+					// noop
+				}
+			});
+			subscriber.onError(new IllegalStateException(
+					"Only one subscriber supported"));
+			return;
+		}
+		this.downstream.onSubscribe(new Subscription() {
+
+			public void request(long n) {
+				if (n <= 0) {
+					fail(new IllegalArgumentException(
+							"request must be positive but was " + n));
+					return;
+				}
+				synchronized (FormattingProcessor.this) {
+					long sum = FormattingProcessor.this.demand + n;
+					FormattingProcessor.this.demand = sum < 0 ? Long.MAX_VALUE
+							: sum;
+				}
+				drain();
+			}
+
+			public void cancel() {
+				Subscription subscription;
+				synchronized (FormattingProcessor.this) {
+					FormattingProcessor.this.terminated = true;
+					subscription = FormattingProcessor.this.upstream;
+				}
+				if (subscription != null) {
+					subscription.cancel();
+				}
+			}
+
+		});
+		drain();
+	}
+
+	public void onSubscribe(Subscription subscription) {
+		synchronized (this) {
+			if (this.upstream != null) {
+				subscription.cancel();
+				return;
+			}
+			this.upstream = subscription;
+		}
+		subscription.request(this.bufferSize);
+	}
+
+	public void onNext(Value item) {
+		Batch toExecute = null;
+		synchronized (this) {
+			if (this.terminated) {
+				return;
+			}
+			this.batch.add(item);
+			// submit partial batches when idle, so low rates are not delayed
+			if (this.batch.size() >= this.batchSize || this.inFlight.isEmpty()) {
+				toExecute = cutBatch();
+			}
+		}
+		execute(toExecute);
+	}
+
+	public void onError(Throwable throwable) {
+		Batch toExecute;
+		synchronized (this) {
+			this.error = throwable;
+			this.upstreamDone = true;
+			toExecute = cutBatch();
+		}
+		execute(toExecute);
+		drain();
+	}
+
+	public void onComplete() {
+		Batch toExecute;
+		synchronized (this) {
+			this.upstreamDone = true;
+			toExecute = cutBatch();
+		}
+		execute(toExecute);
+		drain();
+	}
+
+	private Batch cutBatch() {
+		if (this.batch.isEmpty()) {
+			return null;
+		}
+		Batch result = new Batch(this.batch);
+		this.inFlight.add(result);
+		this.batch = new ArrayList<Value>(this.batchSize);
+		return result;
+	}
+
+	private void execute(Batch batch) {
+		if (batch != null) {
+			this.executor.execute(batch);
+		}
+	}
+
+	private void drain() {
+		synchronized (this) {
+			if (this.emitting) {
+				this.missed = true;
+				return;
+			}
+			this.emitting = true;
+		}
+		for (;;) {
+			Subscriber<? super String> subscriber;
+			String next = null;
+			Throwable failure = null;
+			boolean complete = false;
+			long request = 0;
+			Batch toExecute = null;
+			synchronized (this) {
+				subscriber = this.downstream;
+				if (subscriber == null || this.terminated) {
+					this.emitting = false;
+					return;
+				}
+				try {
+					next = this.demand > 0 ? poll() : null;
+				} catch (ExecutionException e) {
+					failure = e.getCause();
+				}
+				if (next != null) {
+					this.demand--;
+					if (++this.consumed >= this.batchSize && !this.upstreamDone) {
+						request = this.consumed;
+						this.consumed = 0;
+					}
+				} else if (failure != null) {
+					this.terminated = true;
+				} else if (this.upstreamDone && this.inFlight.isEmpty()
+						&& !hasCurrent()) {
+					this.terminated = true;
+					failure = this.error;
+					complete = failure == null;
+				} else if (this.missed) {
+					this.missed = false;
+					continue;
+				} else {
+					if (this.inFlight.isEmpty()) {
+						toExecute = cutBatch();
+					}
+					this.emitting = false;
+				}
+			}
+			if (next != null) {
+				subscriber.onNext(next);
+				if (request > 0) {
+					this.upstream.request(request);
+				}
+			} else if (failure != null) {
+				if (!complete && this.upstream != null && !this.upstreamDone) {
+					this.upstream.cancel();
+				}
+				subscriber.onError(failure);
+				return;
+			} else if (complete) {
+				subscriber.onComplete();
+				return;
+			} else {
+				execute(toExecute);
+				return;
+			}
+		}
+	}
+
+	private boolean hasCurrent() {
+		return this.current != null && this.currentIdx < this.current.length;
+	}
+
+	private String poll() throws ExecutionException {
+		if (!hasCurrent()) {
+			Batch head = this.inFlight.peek();
+			if (head == null || !head.isDone()) {
+				return null;
+			}
+			this.inFlight.remove();
+			try {
+				this.current = head.get();
+			} catch (InterruptedException e) {
+				// cannot happen since the batch is done
+				Thread.currentThread().interrupt();
+				throw new ExecutionException(e);
+			}
+			this.currentIdx = 0;
+		}
+		return this.current[this.currentIdx++];
+	}
+
+	private void fail(Throwable throwable) {
+		Subscription subscription;
+		synchronized (this) {
+			this.error = throwable;
+			this.upstreamDone = true;
+			this.inFlight.clear();
+			this.current = null;
+			subscription = this.upstream;
+		}
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		drain();
+	}
+
+	private static void checkArgument(boolean state, String errorMessage) {
+		if (!state) {
+			throw new IllegalArgumentException(errorMessage);
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a duration using several {@link DurationFormatter}s at once (e.g.
+ * DIGITS for a log line and SYMBOLS for the UI). The duration is decomposed
+ * only once and formatters whose strategy configuration (minimum, maximum,
+ * suppressing zeros, amount of units, rounding) coincides share the strategy
+ * work, so only joining is done per formatter. Formatters explaining their
+ * strategies (see
+ * {@link DurationFormatter.Builder#explain(DurationFormatter.ExplainListener)}
+ * ) never share the strategy work, their listeners are informed about each
+ * call. Formatters not created by a {@link DurationFormatter.Builder} are
+ * supported but simply called. Instances are threadsafe.
+ * 
+ * @author Peter Fichtner
+ */
+public class MultiFormatter {
+
+	/**
+	 * Formatters sharing one strategy configuration.
+	 */
+	private static class Group {
+
+		private final TimeValuesFormatter strategy;
+		private final List<Integer> members = new ArrayList<Integer>();
+
+		public Group(TimeValuesFormatter strategy) {
+			this.strategy = strategy;
+		}
+
+	}
+
+	private final DurationFormatter[] formatters;
+	private final Group[] groups;
+
+	public MultiFormatter(DurationFormatter... formatters) {
+		this.formatters = formatters.clone();
+		List<Group> groups = new ArrayList<Group>();
+		for (int i = 0; i < this.formatters.length; i++) {
+			if (this.formatters[i] instanceof TimeValuesFormatter) {
+				TimeValuesFormatter formatter = (TimeValuesFormatter) this.formatters[i];
+				Group group = groupOf(groups, formatter.strategyKey());
+				if (group == null) {
+					groups.add(group = new Group(formatter));
+				}
+				group.members.add(Integer.valueOf(i));
+			}
+		}
+		this.groups = groups.toArray(new Group[groups.size()]);
+	}
+
+	private static Group groupOf(List<Group> groups, Object strategyKey) {
+		for (Group group : groups) {
+			if (group.strategy.strategyKey().equals(strategyKey)) {
+				return group;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the amount of formatters (and so outputs).
+	 * 
+	 * @return amount of formatters
+	 */
+	public int size() {
+		return this.formatters.length;
+	}
+
+	public String[] formatMillis(long value) {
+		return format(value, MILLISECONDS);
+	}
+
+	/**
+	 * Formats the passed duration using all formatters.
+	 * 
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return the outputs in the order of the formatters
+	 */
+	public String[] format(long value, TimeUnit timeUnit) {
+		StringBuilder[] sbs = new StringBuilder[this.formatters.length];
+		for (int i = 0; i < sbs.length; i++) {
+			sbs[i] = new StringBuilder();
+		}
+		formatTo(sbs, value, timeUnit);
+		String[] result = new String[sbs.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = sbs[i].toString();
+		}
+		return result;
+	}
+
+	/**
+	 * Formats the passed duration using all formatters appending the output
+	 * of the n-th formatter to the n-th StringBuilder.
+	 * 
+	 * @param sbs
+	 *            the StringBuilders to append to, one per formatter
+	 * @param value
+	 *            the duration to format
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return the passed StringBuilders
+	 */
+	public StringBuilder[] formatTo(StringBuilder[] sbs, long value,
+			TimeUnit timeUnit) {
+		if (sbs.length != this.formatters.length) {
+			throw new IllegalArgumentException("Expected "
+					+ this.formatters.length + " StringBuilders but got "
+					+ sbs.length);
+		}
+		for (int i = 0; i < this.formatters.length; i++) {
+			if (!(this.formatters[i] instanceof TimeValuesFormatter)) {
+				DurationFormatters.formatTo(this.formatters[i], sbs[i], value,
+						timeUnit);
+			}
+		}
+		TimeValues decomposed = null;
+		TimeValues timeValues = null;
+		for (Group group : this.groups) {
+			boolean applied = false;
+			for (Integer member : group.members) {
+				int idx = member.intValue();
+				TimeValuesFormatter formatter = (TimeValuesFormatter) this.formatters[idx];
+				String precomputed = formatter.lookup(value, timeUnit);
+				if (precomputed == null) {
+					if (!applied) {
+						decomposed = decomposed == null ? new TimeValues(value,
+								timeUnit) : decomposed;
+						timeValues = timeValues == null ? new TimeValues()
+								: timeValues;
+						group.strategy.applyStrategy(timeValues
+								.copyFrom(decomposed));
+						applied = true;
+					}
+					formatter.join(sbs[idx], timeValues);
+				} else {
+					sbs[idx].append(precomputed);
+				}
+			}
+		}
+		return sbs;
+	}
+
+}
@@ -0,0 +1,285 @@
+package com.github.pfichtner.durationformatter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the precomputed outputs of a formatter so short-lived JVMs do not
+ * have to compute them on every start. Files are read through a read-only
+ * memory mapping that is kept for lookups (so the pages are shared by all
+ * processes on the host reading the same file and only the outputs looked
+ * up are decoded to Strings) and are named after the fingerprint of the
+ * formatter (its configuration and some sample outputs) so formatters with
+ * different configurations do not share a file.
+ * <p>
+ * Layout (big endian): magic, version, fingerprint, amount of outputs,
+ * amount of runs (equal consecutive outputs), per output the number of its
+ * run (a dense index so lookups are two array accesses instead of a search),
+ * per run the file offset of its output, the outputs of all runs, CRC32 of
+ * all preceding bytes. Strings are stored as length and UTF-8 bytes.
+ * <p>
+ * All failures (missing, truncated, corrupt or incompatible files, files
+ * that cannot be written) are ignored so the caller falls back to computing
+ * the outputs.
+ * 
+ * @author Peter Fichtner
+ */
+final class OutputTableFile {
+
+	private static final int MAGIC = 0x44464f54; // DFOT
+
+	private static final int VERSION = 3;
+
+	private static final String UTF8 = "UTF-8";
+
+	/**
+	 * the read-only mapping of the whole file
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * file offset of the run numbers (one int per output)
+	 */
+	private final int index;
+
+	/**
+	 * file offset of the output offsets (one int per run)
+	 */
+	private final int offsets;
+
+	private final int length;
+
+	/**
+	 * decoded outputs per run, racy on purpose (Strings are immutable)
+	 */
+	private final String[] decoded;
+
+	private OutputTableFile(ByteBuffer buffer, int index, int runs,
+			int length) {
+		this.buffer = buffer;
+		this.index = index;
+		this.offsets = index + length * 4;
+		this.length = length;
+		this.decoded = new String[runs];
+	}
+
+	/**
+	 * Returns the amount of outputs.
+	 */
+	int length() {
+		return this.length;
+	}
+
+	/**
+	 * Returns the output at the passed index (0 &lt;= idx &lt;
+	 * {@link #length()}), the output is decoded from the mapping on the first
+	 * lookup of its run.
+	 */
+	String get(int idx) {
+		int run = this.buffer.getInt(this.index + idx * 4);
+		String output = this.decoded[run];
+		if (output == null) {
+			ByteBuffer buffer = this.buffer.duplicate();
+			buffer.position(this.buffer.getInt(this.offsets + run * 4));
+			this.decoded[run] = output = readString(buffer);
+		}
+		return output;
+	}
+
+	static File file(File directory, String fingerprint) {
+		CRC32 crc32 = new CRC32();
+		byte[] bytes = bytes(fingerprint);
+		crc32.update(bytes, 0, bytes.length);
+		return new File(directory, "durationformatter-"
+				+ Long.toHexString(crc32.getValue()) + "-"
+				+ Integer.toHexString(fingerprint.hashCode()) + ".table");
+	}
+
+	/**
+	 * Maps the outputs stored for the passed fingerprint.
+	 * 
+	 * @return the outputs or <code>null</code> if there is no valid file for
+	 *         the fingerprint
+	 */
+	static OutputTableFile load(File directory, String fingerprint, int length) {
+		File file = file(directory, fingerprint);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			FileInputStream stream = new FileInputStream(file);
+			try {
+				FileChannel channel = stream.getChannel();
+				return read(channel.map(MapMode.READ_ONLY, 0, channel.size()),
+						fingerprint, length);
+			} finally {
+				stream.close();
+			}
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// truncated or otherwise corrupt
+			return null;
+		}
+	}
+
+	/**
+	 * Validates the whole file once so lookups do not have to check bounds.
+	 */
+	private static OutputTableFile read(ByteBuffer buffer, String fingerprint,
+			int length) {
+		if (buffer.remaining() < 8 || !checksumValid(buffer)
+				|| buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+				|| !fingerprint.equals(readString(buffer))
+				|| buffer.getInt() != length) {
+			return null;
+		}
+		int runs = buffer.getInt();
+		int index = buffer.position();
+		int end = buffer.limit() - 8;
+		if (length <= 0 || runs <= 0 || runs > length
+				|| length > (end - index) / 4 - runs) {
+			return null;
+		}
+		// run numbers start at 0 and increase by one with each new run
+		int previous = -1;
+		for (int i = 0; i < length; i++) {
+			int run = buffer.getInt(index + i * 4);
+			if (run != previous && run != previous + 1) {
+				return null;
+			}
+			previous = run;
+		}
+		if (previous != runs - 1) {
+			return null;
+		}
+		int offsets = index + length * 4;
+		for (int i = 0; i < runs; i++) {
+			int offset = buffer.getInt(offsets + i * 4);
+			if (offset < offsets + runs * 4 || offset > end - 4
+					|| buffer.getInt(offset) < 0
+					|| buffer.getInt(offset) > end - offset - 4) {
+				return null;
+			}
+		}
+		return new OutputTableFile(buffer, index, runs, length);
+	}
+
+	private static boolean checksumValid(ByteBuffer buffer) {
+		int end = buffer.limit() - 8;
+		CRC32 crc32 = new CRC32();
+		byte[] chunk = new byte[8192];
+		ByteBuffer content = buffer.duplicate();
+		content.limit(end);
+		while (content.hasRemaining()) {
+			int len = Math.min(chunk.length, content.remaining());
+			content.get(chunk, 0, len);
+			crc32.update(chunk, 0, len);
+		}
+		return buffer.getLong(end) == crc32.getValue();
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		try {
+			return new String(bytes, UTF8);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Stores the outputs for the passed fingerprint. The file is written to
+	 * a temporary file first and then renamed so concurrent readers never
+	 * see partially written files.
+	 */
+	static void store(File directory, String fingerprint, String[] outputs) {
+		File file = file(directory, fingerprint);
+		try {
+			byte[] content = content(fingerprint, outputs);
+			File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+			try {
+				FileOutputStream stream = new FileOutputStream(tmp);
+				try {
+					stream.write(content);
+				} finally {
+					stream.close();
+				}
+				if (!tmp.renameTo(file)) {
+					// e.g. another process renamed its file first on
+					// platforms not replacing existing files
+					return;
+				}
+			} finally {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			// not cached, will be computed again next time
+		}
+	}
+
+	private static byte[] content(String fingerprint, String[] outputs)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeString(out, fingerprint);
+		out.writeInt(outputs.length);
+		int runs = 0;
+		for (int i = 0; i < outputs.length; i++) {
+			runs += i == 0 || !outputs[i].equals(outputs[i - 1]) ? 1 : 0;
+		}
+		out.writeInt(runs);
+		int run = -1;
+		for (int i = 0; i < outputs.length; i++) {
+			run += i == 0 || !outputs[i].equals(outputs[i - 1]) ? 1 : 0;
+			out.writeInt(run);
+		}
+		int offset = out.size() + runs * 4;
+		for (int i = 0; i < outputs.length; i++) {
+			if (i == 0 || !outputs[i].equals(outputs[i - 1])) {
+				out.writeInt(offset);
+				offset += 4 + bytes(outputs[i]).length;
+			}
+		}
+		for (int i = 0; i < outputs.length; i++) {
+			if (i == 0 || !outputs[i].equals(outputs[i - 1])) {
+				writeString(out, outputs[i]);
+			}
+		}
+		out.flush();
+		CRC32 crc32 = new CRC32();
+		byte[] content = bytes.toByteArray();
+		crc32.update(content, 0, content.length);
+		out.writeLong(crc32.getValue());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(DataOutputStream out, String string)
+			throws IOException {
+		byte[] bytes = bytes(string);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] bytes(String string) {
+		try {
+			return string.getBytes(UTF8);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.github.pfichtner.durationformatter;
+
+/**
+ * Sizes of the power of two tables (indexed by a mask instead of a modulo)
+ * used by the concurrent parts of this library.
+ *
+ * @author Peter Fichtner
+ */
+final class PowersOfTwo {
+
+	private PowersOfTwo() {
+		super();
+	}
+
+	/**
+	 * Returns the smallest power of two that is not less than the passed
+	 * value.
+	 *
+	 * @param value
+	 *            the value to round up, must be in <code>[1, 2^30]</code>
+	 * @return the power of two
+	 */
+	static int ceil(int value) {
+		return Integer.highestOneBit(value * 2 - 1);
+	}
+
+	/**
+	 * Returns the amount of stripes for tables selected by the current
+	 * thread: twice the processors (rounded up to a power of two) so threads
+	 * rarely share a stripe.
+	 *
+	 * @return the amount of stripes (a power of two)
+	 */
+	static int stripes() {
+		return ceil(Runtime.getRuntime().availableProcessors()) << 1;
+	}
+
+}
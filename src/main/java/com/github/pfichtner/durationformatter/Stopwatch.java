@@ -0,0 +1,159 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures elapsed time and laps using {@link System#nanoTime()}. Laps are
+ * recorded into a primitive long array and rendered directly into a
+ * StringBuilder using a {@link DurationFormatter}, so measuring does not
+ * create any objects (unless the lap array has to grow). Only differences of
+ * nanoTime values are used, so a numerical overflow of nanoTime does not
+ * break the measurement. Instances are not threadsafe.
+ * 
+ * @author Peter Fichtner
+ */
+public class Stopwatch {
+
+	private long[] laps;
+	private int lapCount;
+	private long start;
+	private long lastLap;
+	private long stop;
+	private boolean running;
+
+	public Stopwatch() {
+		this(16);
+	}
+
+	/**
+	 * Creates a new Stopwatch.
+	 * 
+	 * @param lapCapacity
+	 *            initial capacity of laps (the array grows if more laps are
+	 *            recorded)
+	 */
+	public Stopwatch(int lapCapacity) {
+		this.laps = new long[Math.max(1, lapCapacity)];
+	}
+
+	/**
+	 * Starts (or restarts) this Stopwatch, all recorded laps are discarded.
+	 * 
+	 * @return this Stopwatch
+	 */
+	public Stopwatch start() {
+		this.lapCount = 0;
+		this.start = this.lastLap = nanoTime();
+		this.running = true;
+		return this;
+	}
+
+	/**
+	 * Records a lap.
+	 * 
+	 * @return the duration of this lap in nanoseconds
+	 */
+	public long lap() {
+		checkRunning();
+		long now = nanoTime();
+		long lap = now - this.lastLap;
+		this.lastLap = now;
+		if (this.lapCount == this.laps.length) {
+			long[] laps = new long[this.laps.length * 2];
+			System.arraycopy(this.laps, 0, laps, 0, this.lapCount);
+			this.laps = laps;
+		}
+		this.laps[this.lapCount++] = lap;
+		return lap;
+	}
+
+	/**
+	 * Stops this Stopwatch.
+	 * 
+	 * @return the elapsed nanoseconds since {@link #start()}
+	 */
+	public long stop() {
+		checkRunning();
+		this.stop = nanoTime();
+		this.running = false;
+		return elapsedNanos();
+	}
+
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Returns the nanoseconds elapsed since {@link #start()} until now (if
+	 * running) or until {@link #stop()}.
+	 * 
+	 * @return elapsed nanoseconds
+	 */
+	public long elapsedNanos() {
+		return (this.running ? nanoTime() : this.stop) - this.start;
+	}
+
+	public int laps() {
+		return this.lapCount;
+	}
+
+	public long lapNanos(int lap) {
+		if (lap < 0 || lap >= this.lapCount) {
+			throw new IndexOutOfBoundsException("lap " + lap + " of "
+					+ this.lapCount);
+		}
+		return this.laps[lap];
+	}
+
+	public StringBuilder formatElapsedTo(StringBuilder sb,
+			DurationFormatter formatter) {
+		return DurationFormatters.formatTo(formatter, sb, elapsedNanos(),
+				NANOSECONDS);
+	}
+
+	public StringBuilder formatLapTo(StringBuilder sb,
+			DurationFormatter formatter, int lap) {
+		return DurationFormatters.formatTo(formatter, sb, lapNanos(lap),
+				NANOSECONDS);
+	}
+
+	/**
+	 * Appends all laps separated by <code>delimiter</code>.
+	 * 
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @param formatter
+	 *            the formatter to use
+	 * @param delimiter
+	 *            the delimiter between the laps
+	 * @return the passed StringBuilder
+	 */
+	public StringBuilder formatLapsTo(StringBuilder sb,
+			DurationFormatter formatter, String delimiter) {
+		for (int i = 0; i < this.lapCount; i++) {
+			if (i > 0) {
+				sb.append(delimiter);
+			}
+			DurationFormatters.formatTo(formatter, sb, this.laps[i],
+					NANOSECONDS);
+		}
+		return sb;
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	private void checkRunning() {
+		if (!this.running) {
+			throw new IllegalStateException("Stopwatch not running");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Stopwatch [elapsedNanos=" + elapsedNanos() + ", laps="
+				+ this.lapCount + ", running=" + this.running + "]";
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.github.pfichtner.durationformatter;
+
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.LEADING;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.ExplainListener;
+
+/**
+ * Aggregates the calls and elapsed nanoseconds per step of the strategies of
+ * one or more formatters, so configurations can be compared using data.
+ * Steps are kept in the order they were seen first. Instances are
+ * threadsafe, totals read while steps are recorded are not atomic
+ * snapshots.
+ * 
+ * @see DurationFormatter.Builder#explain(ExplainListener)
+ * @author Peter Fichtner
+ */
+public class StrategyProfile implements ExplainListener {
+
+	private static final class Step {
+
+		private final String name;
+		private final AtomicLong calls = new AtomicLong();
+		private final AtomicLong elapsedNanos = new AtomicLong();
+
+		Step(String name) {
+			this.name = name;
+		}
+
+	}
+
+	private final DurationFormatter formatter;
+
+	private final List<Step> steps = new CopyOnWriteArrayList<Step>();
+
+	public StrategyProfile() {
+		this(Builder.SYMBOLS.minimum(NANOSECONDS).maximum(SECONDS)
+				.suppressZeros(LEADING).build());
+	}
+
+	/**
+	 * Creates a new StrategyProfile.
+	 * 
+	 * @param formatter
+	 *            the formatter used to render the elapsed times
+	 */
+	public StrategyProfile(DurationFormatter formatter) {
+		this.formatter = formatter;
+	}
+
+	public void begin(TimeValues values) {
+		// nothing to aggregate
+	}
+
+	public void step(String strategy, long elapsedNanos, TimeValues values) {
+		Step step = step(strategy);
+		step.calls.incrementAndGet();
+		step.elapsedNanos.addAndGet(elapsedNanos);
+	}
+
+	private Step step(String name) {
+		Step step = find(name);
+		if (step == null) {
+			synchronized (this.steps) {
+				step = find(name);
+				if (step == null) {
+					step = new Step(name);
+					this.steps.add(step);
+				}
+			}
+		}
+		return step;
+	}
+
+	private Step find(String name) {
+		for (Step step : this.steps) {
+			if (step.name.equals(name)) {
+				return step;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns how often the passed step was run.
+	 * 
+	 * @param strategy
+	 *            the name of the step
+	 * @return the amount of calls, 0 for unknown steps
+	 */
+	public long calls(String strategy) {
+		Step step = find(strategy);
+		return step == null ? 0 : step.calls.get();
+	}
+
+	/**
+	 * Returns the nanoseconds the passed step took in total.
+	 * 
+	 * @param strategy
+	 *            the name of the step
+	 * @return the elapsed nanoseconds, 0 for unknown steps
+	 */
+	public long elapsedNanos(String strategy) {
+		Step step = find(strategy);
+		return step == null ? 0 : step.elapsedNanos.get();
+	}
+
+	/**
+	 * Appends one line per step containing its name, the amount of calls,
+	 * the total and the average elapsed time.
+	 * 
+	 * @param appendable
+	 *            the Appendable to append to
+	 * @return the passed Appendable
+	 * @throws IOException
+	 *             if the Appendable throws one
+	 */
+	public <A extends Appendable> A appendTo(A appendable) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (Step step : this.steps) {
+			long calls = step.calls.get();
+			long elapsedNanos = step.elapsedNanos.get();
+			sb.setLength(0);
+			sb.append(step.name).append(": calls=").append(calls)
+					.append(", total=");
+			DurationFormatters.formatTo(this.formatter, sb, elapsedNanos,
+					NANOSECONDS).append(", average=");
+			DurationFormatters.formatTo(this.formatter, sb,
+					calls == 0 ? 0 : elapsedNanos / calls, NANOSECONDS)
+					.append('\n');
+			appendable.append(sb);
+		}
+		return appendable;
+	}
+
+	/**
+	 * Removes all steps recorded so far.
+	 */
+	public void reset() {
+		this.steps.clear();
+	}
+
+	@Override
+	public String toString() {
+		try {
+			return appendTo(new StringBuilder()).toString();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.ExplainListener;
+import com.github.pfichtner.durationformatter.TimeValues.Bucket;
+
+/**
+ * Records each step of the strategies of a formatter as one line containing
+ * the name of the step, its elapsed nanoseconds and the values of all units
+ * after the step (invisible units in parentheses), e.g.
+ * <code>PollFromLeft (210ns): (DAYS=0) HOURS=1 MINUTES=2 ...</code>. The
+ * decomposed duration is recorded as step <code>Decompose</code>. Intended
+ * to explain single calls, instances are not threadsafe.
+ * 
+ * @see DurationFormatter.Builder#explain(ExplainListener)
+ * @author Peter Fichtner
+ */
+public class StrategyTrace implements ExplainListener {
+
+	private final StringBuilder sb = new StringBuilder();
+
+	public void begin(TimeValues values) {
+		appendLine("Decompose").append(": ");
+		appendState(values);
+	}
+
+	public void step(String strategy, long elapsedNanos, TimeValues values) {
+		appendLine(strategy).append(" (").append(elapsedNanos).append("ns): ");
+		appendState(values);
+	}
+
+	private StringBuilder appendLine(String step) {
+		if (this.sb.length() > 0) {
+			this.sb.append('\n');
+		}
+		return this.sb.append(step);
+	}
+
+	private void appendState(TimeValues values) {
+		boolean first = true;
+		for (Bucket bucket : values) {
+			if (!first) {
+				this.sb.append(' ');
+			}
+			if (!bucket.isVisible()) {
+				this.sb.append('(');
+			}
+			TimeUnit timeUnit = bucket.getTimeUnit();
+			this.sb.append(timeUnit == null ? "WEEKS" : timeUnit).append('=')
+					.append(bucket.getValue());
+			if (!bucket.isVisible()) {
+				this.sb.append(')');
+			}
+			first = false;
+		}
+	}
+
+	/**
+	 * Removes all steps recorded so far.
+	 * 
+	 * @return this StrategyTrace
+	 */
+	public StrategyTrace clear() {
+		this.sb.setLength(0);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return this.sb.toString();
+	}
+
+}
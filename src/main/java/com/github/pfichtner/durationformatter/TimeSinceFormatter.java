@@ -0,0 +1,291 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+
+/**
+ * Formats the time elapsed since a point in time (e.g. "uptime" or
+ * "last seen") for many objects. Instead of reading the system clock per
+ * object a coarse clock is read that is updated by a daemon thread on each
+ * tick. One thread ticks all open instances at the finest tick of any of
+ * them, so an instance is updated at least as often as requested. The
+ * elapsed time is quantized to the minimum of the Builder (half of it if
+ * rounding is enabled, since the formatter rounds using the next finer unit)
+ * so all elapsed times of one quantum produce the same String. These Strings
+ * are cached in a lossy direct mapped cache, so objects rendered in the same
+ * tick share the work. Instances are threadsafe and should be
+ * {@link #close() closed} to no longer be ticked (the thread ends with the
+ * last open instance). The clock thread only holds weak references, instances
+ * not closed are dropped on the first tick after they were garbage collected.
+ * Since the clock is read in milliseconds the minimum of the Builder must not
+ * be finer than {@link TimeUnit#MILLISECONDS}.
+ *
+ * @author Peter Fichtner
+ */
+public class TimeSinceFormatter implements Closeable {
+
+	/**
+	 * The clock thread shared by all open instances.
+	 */
+	private static final class SharedClock {
+
+		private final List<WeakReference<TimeSinceFormatter>> formatters = new CopyOnWriteArrayList<WeakReference<TimeSinceFormatter>>();
+
+		private Timer timer;
+
+		private TimerTask task;
+
+		/**
+		 * the finest tick of all open instances (in milliseconds), 0 if
+		 * there is none
+		 */
+		private long period;
+
+		synchronized void register(TimeSinceFormatter formatter) {
+			this.formatters.add(new WeakReference<TimeSinceFormatter>(
+					formatter));
+			reschedule();
+		}
+
+		/**
+		 * Removes the passed instance and all instances already garbage
+		 * collected (<code>null</code> only prunes).
+		 */
+		synchronized void unregister(TimeSinceFormatter formatter) {
+			boolean removed = false;
+			for (WeakReference<TimeSinceFormatter> reference : this.formatters) {
+				TimeSinceFormatter referent = reference.get();
+				if (referent == null || referent == formatter) {
+					removed |= this.formatters.remove(reference);
+				}
+			}
+			if (removed) {
+				reschedule();
+			}
+		}
+
+		synchronized long period() {
+			return this.period;
+		}
+
+		private void reschedule() {
+			long period = 0;
+			for (WeakReference<TimeSinceFormatter> reference : this.formatters) {
+				TimeSinceFormatter formatter = reference.get();
+				if (formatter != null) {
+					period = period == 0 ? formatter.period : Math.min(
+							period, formatter.period);
+				}
+			}
+			if (period == this.period) {
+				return;
+			}
+			this.period = period;
+			if (this.task != null) {
+				this.task.cancel();
+				this.task = null;
+			}
+			if (period == 0) {
+				this.timer.cancel();
+				this.timer = null;
+				return;
+			}
+			if (this.timer == null) {
+				this.timer = new Timer("TimeSinceFormatter clock", true);
+			}
+			this.task = new TimerTask() {
+				@Override
+				public void run() {
+					boolean collected = false;
+					for (WeakReference<TimeSinceFormatter> reference : SharedClock.this.formatters) {
+						TimeSinceFormatter formatter = reference.get();
+						if (formatter == null) {
+							collected = true;
+						} else {
+							formatter.tick();
+						}
+					}
+					if (collected) {
+						unregister(null);
+					}
+				}
+			};
+			this.timer.scheduleAtFixedRate(this.task, period, period);
+		}
+
+	}
+
+	private static final SharedClock CLOCK = new SharedClock();
+
+	private static final class Entry {
+
+		private final long key;
+		private final String value;
+
+		Entry(long key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+	}
+
+	private final DurationFormatter formatter;
+
+	/**
+	 * elapsed millis of the same quantum produce the same output
+	 */
+	private final long quantum;
+
+	private final AtomicReferenceArray<Entry> cache;
+
+	private final int mask;
+
+	/**
+	 * the requested tick in milliseconds
+	 */
+	private final long period;
+
+	private volatile long now;
+
+	/**
+	 * Creates a new TimeSinceFormatter whose clock is updated once a second
+	 * and that caches 1024 Strings.
+	 *
+	 * @param builder
+	 *            the Builder of the formatter to use
+	 */
+	public TimeSinceFormatter(Builder builder) {
+		this(builder, 1, TimeUnit.SECONDS, 1024);
+	}
+
+	/**
+	 * Creates a new TimeSinceFormatter.
+	 *
+	 * @param builder
+	 *            the Builder of the formatter to use, its minimum must not be
+	 *            finer than {@link TimeUnit#MILLISECONDS}
+	 * @param tick
+	 *            the maximum time between two updates of the clock (at least
+	 *            a millisecond)
+	 * @param tickUnit
+	 *            the TimeUnit of <code>tick</code>
+	 * @param cacheSize
+	 *            the amount of Strings to cache (rounded up to a power of
+	 *            two)
+	 */
+	public TimeSinceFormatter(Builder builder, long tick, TimeUnit tickUnit,
+			int cacheSize) {
+		long period = tickUnit.toMillis(tick);
+		if (period <= 0) {
+			throw new IllegalArgumentException("tick must be at least 1ms");
+		}
+		if (cacheSize <= 0) {
+			throw new IllegalArgumentException("cacheSize must be positive");
+		}
+		if (builder.getMinimum().compareTo(MILLISECONDS) < 0) {
+			throw new IllegalArgumentException(
+					"minimum must not be finer than MILLISECONDS");
+		}
+		this.formatter = builder.build();
+		long minimum = builder.getMinimum().toMillis(1);
+		this.quantum = Math.max(1, builder.isRound() ? minimum / 2 : minimum);
+		int size = PowersOfTwo.ceil(Math.min(cacheSize, 1 << 30));
+		this.cache = new AtomicReferenceArray<Entry>(size);
+		this.mask = size - 1;
+		this.period = period;
+		tick();
+		CLOCK.register(this);
+	}
+
+	/**
+	 * Formats the time elapsed since <code>sinceMillis</code> until the
+	 * current value of the coarse clock. Points in time after the clock are
+	 * formatted as zero.
+	 *
+	 * @param sinceMillis
+	 *            the point in time (milliseconds since the epoch, like
+	 *            {@link System#currentTimeMillis()})
+	 * @return String containing the elapsed time
+	 */
+	public String format(long sinceMillis) {
+		long elapsed = Math.max(0, this.now - sinceMillis);
+		long key = elapsed / this.quantum;
+		int idx = (int) (key ^ key >>> 32) & this.mask;
+		Entry entry = this.cache.get(idx);
+		if (entry == null || entry.key != key) {
+			entry = new Entry(key, this.formatter.format(key * this.quantum,
+					MILLISECONDS));
+			this.cache.set(idx, entry);
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Appends the time elapsed since <code>sinceMillis</code>, see
+	 * {@link #format(long)}.
+	 *
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @param sinceMillis
+	 *            the point in time (milliseconds since the epoch)
+	 * @return the passed StringBuilder
+	 */
+	public StringBuilder formatTo(StringBuilder sb, long sinceMillis) {
+		return sb.append(format(sinceMillis));
+	}
+
+	/**
+	 * Returns the current value of the coarse clock.
+	 *
+	 * @return milliseconds since the epoch, updated on each tick
+	 */
+	public long now() {
+		return this.now;
+	}
+
+	/**
+	 * Updates the coarse clock, called by the shared clock thread on each
+	 * tick.
+	 */
+	public void tick() {
+		this.now = currentTimeMillis();
+	}
+
+	/**
+	 * Stops ticking this instance, the clock is not updated afterwards
+	 * (unless {@link #tick()} is called). The shared clock thread continues
+	 * at the finest tick of the remaining open instances.
+	 */
+	public void close() {
+		CLOCK.unregister(this);
+	}
+
+	/**
+	 * Returns the period (in milliseconds) the shared clock thread currently
+	 * ticks at, 0 if no instance is open.
+	 */
+	static long clockPeriod() {
+		return CLOCK.period();
+	}
+
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public String toString() {
+		return "TimeSinceFormatter [now=" + this.now + ", quantum="
+				+ this.quantum + ", cacheSize=" + this.cache.length() + "]";
+	}
+
+}
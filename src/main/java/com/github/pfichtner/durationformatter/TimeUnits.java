@@ -3,9 +3,7 @@ package com.github.pfichtner.durationformatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 // TODO Reduce to one reference and inline
@@ -18,21 +16,178 @@ class TimeUnits {
 	public static final List<TimeUnit> timeUnits = Collections
 			.unmodifiableList(orderingNatural(Arrays.asList(TimeUnit.values())));
 
-	public static final Map<TimeUnit, Long> maxValues = Collections
-			.unmodifiableMap(maxValuesFor(timeUnits));
+	/**
+	 * Position of weeks, the only unit of the ladder that is no TimeUnit. The
+	 * TimeUnits follow at the positions <code>1</code> (DAYS) to
+	 * <code>size() - 1</code> (NANOSECONDS).
+	 */
+	public static final int WEEKS = 0;
 
-	private static Map<TimeUnit, Long> maxValuesFor(List<TimeUnit> list) {
-		Map<TimeUnit, Long> maxValues = new HashMap<TimeUnit, Long>(list.size());
+	public static final long DAYS_PER_WEEK = 7;
+
+	/**
+	 * Divisor table indexed by the position inside the ladder: each entry
+	 * holds how many units of this position fit into one unit of the next
+	 * greater position ({@link Long#MAX_VALUE} for the greatest unit). DAYS
+	 * are only carried into weeks by formatters showing weeks (see
+	 * {@link TimeValues#showWeeks()}), so the entry of DAYS is
+	 * {@link Long#MAX_VALUE} as well. Lookups are array loads so a longer
+	 * ladder does not cost more than the current one.
+	 */
+	private static final long[] maxValues = maxValuesFor(timeUnits);
+
+	/**
+	 * Length of the units in nanoseconds indexed by the position inside the
+	 * ladder
+	 */
+	private static final long[] nanos = nanosFor(timeUnits);
+
+	/**
+	 * {@link Divider}s for the entries of {@link #maxValues}
+	 */
+	private static final Divider[] dividers = dividersFor(maxValues);
+
+	/**
+	 * Position inside the ladder indexed by {@link TimeUnit#ordinal()}
+	 */
+	private static final int[] indices = indicesFor(timeUnits);
+
+	/**
+	 * Converted values are kept below this limit so adding the rest (or a
+	 * rounding carry) cannot overflow
+	 */
+	private static final double DOUBLE_LIMIT = 1L << 62;
+
+	public static int size() {
+		return maxValues.length;
+	}
+
+	public static int indexOf(TimeUnit timeUnit) {
+		return indices[timeUnit.ordinal()];
+	}
+
+	/**
+	 * Returns the TimeUnit at the passed position, <code>null</code> for
+	 * {@link #WEEKS}.
+	 */
+	public static TimeUnit timeUnit(int idx) {
+		return idx == WEEKS ? null : timeUnits.get(idx - 1);
+	}
+
+	public static long nanos(int idx) {
+		return nanos[idx];
+	}
+
+	public static long maxValue(int idx) {
+		return maxValues[idx];
+	}
+
+	public static long maxValue(TimeUnit timeUnit) {
+		return maxValue(indexOf(timeUnit));
+	}
+
+	public static Divider divider(int idx) {
+		return dividers[idx];
+	}
+
+	/**
+	 * Returns the position of the finest TimeUnit the passed (finite) value
+	 * can be converted to without leaving the range of long.
+	 * 
+	 * @param value
+	 *            the value to convert
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return position of a TimeUnit inside the ladder
+	 */
+	public static int finestIndexOf(double value, TimeUnit timeUnit) {
+		double nanos = Math.abs(value) * timeUnit.toNanos(1);
+		int idx = size() - 1;
+		while (idx > WEEKS + 1 && nanos >= DOUBLE_LIMIT * nanos(idx)) {
+			idx--;
+		}
+		return idx;
+	}
+
+	/**
+	 * Converts the passed (finite) value to the TimeUnit at position
+	 * <code>idx</code>. The whole and the fractional part are converted
+	 * separately so the whole part is converted exactly. The rest is rounded
+	 * half up (absorbing the representation error of e.g. <code>0.3</code>)
+	 * or truncated if <code>round</code> is not set.
+	 * 
+	 * @param value
+	 *            the value to convert
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @param idx
+	 *            the position of the target TimeUnit, see
+	 *            {@link #finestIndexOf(double, TimeUnit)}
+	 * @param round
+	 *            round instead of truncating the rest
+	 * @return the converted value
+	 */
+	public static long convert(double value, TimeUnit timeUnit, int idx,
+			boolean round) {
+		TimeUnit target = timeUnit(idx);
+		if (Math.abs(value) * timeUnit.toNanos(1) >= DOUBLE_LIMIT
+				* target.toNanos(1)) {
+			// saturate like TimeUnit#convert does
+			return value < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+		}
+		if (target.compareTo(timeUnit) > 0) {
+			// values this large do not have a fractional part
+			return truncate(value / timeUnit.convert(1, target), round);
+		}
+		long ratio = target.convert(1, timeUnit);
+		long whole = (long) value;
+		return whole * ratio + truncate((value - whole) * ratio, round);
+	}
+
+	private static long truncate(double value, boolean round) {
+		long whole = (long) value;
+		return round && Math.abs(value - whole) >= 0.5 ? value < 0 ? whole - 1
+				: whole + 1 : whole;
+	}
+
+	private static long[] maxValuesFor(List<TimeUnit> list) {
+		long[] maxValues = new long[list.size() + 1];
+		maxValues[WEEKS] = Long.MAX_VALUE;
 		TimeUnit previous = null;
-		for (TimeUnit timeUnit : list) {
-			Long maxValue = Long.valueOf((previous == null ? Long.MAX_VALUE
-					: timeUnit.convert(1, previous)));
-			maxValues.put(timeUnit, maxValue);
+		for (int i = 0; i < list.size(); i++) {
+			TimeUnit timeUnit = list.get(i);
+			maxValues[i + 1] = previous == null ? Long.MAX_VALUE : timeUnit
+					.convert(1, previous);
 			previous = timeUnit;
 		}
 		return maxValues;
 	}
 
+	private static long[] nanosFor(List<TimeUnit> list) {
+		long[] nanos = new long[list.size() + 1];
+		nanos[WEEKS] = TimeUnit.DAYS.toNanos(DAYS_PER_WEEK);
+		for (int i = 0; i < list.size(); i++) {
+			nanos[i + 1] = list.get(i).toNanos(1);
+		}
+		return nanos;
+	}
+
+	private static Divider[] dividersFor(long[] maxValues) {
+		Divider[] dividers = new Divider[maxValues.length];
+		for (int i = 0; i < dividers.length; i++) {
+			dividers[i] = new Divider(maxValues[i]);
+		}
+		return dividers;
+	}
+
+	private static int[] indicesFor(List<TimeUnit> list) {
+		int[] indices = new int[TimeUnit.values().length];
+		for (int i = 0; i < list.size(); i++) {
+			indices[list.get(i).ordinal()] = i + 1;
+		}
+		return indices;
+	}
+
 	private static <T extends Comparable<T>> List<T> orderingNatural(List<T> ts) {
 		List<T> result = new ArrayList<T>(ts);
 		Collections.sort(result, Collections.reverseOrder());
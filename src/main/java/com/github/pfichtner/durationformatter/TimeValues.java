@@ -3,42 +3,68 @@ package com.github.pfichtner.durationformatter;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import com.github.pfichtner.durationformatter.TimeValues.Bucket;
 
 public class TimeValues implements Iterable<Bucket> {
 
+	private static final Divider DAYS_PER_WEEK = new Divider(
+			TimeUnits.DAYS_PER_WEEK);
+
+	/**
+	 * the buckets of the TimeUnits, the one at bucket position
+	 * <code>i</code> is at index <code>i - 1</code>
+	 */
 	private final Bucket[] buckets = initialize();
 
-	private static final List<TimeUnit> timeUnits = TimeUnits.timeUnits;
+	/**
+	 * the bucket of weeks followed by {@link #buckets}, created when weeks
+	 * are shown the first time
+	 */
+	private Bucket[] withWeeks;
 
-	private static final Map<TimeUnit, Long> maxValues = TimeUnits.maxValues;
+	/**
+	 * <code>true</code> if DAYS are carried into weeks, see
+	 * {@link #showWeeks()}
+	 */
+	private boolean weeks;
 
 	public static class Bucket {
 
 		// the next greater Bucket (TimeUnit), previous because hh:mm:ss: ...
-		private final Bucket previous;
+		private Bucket previous;
+		private final int position;
 		private final TimeUnit timeUnit;
-		private final long maxValue;
+		private long maxValue;
+		private Divider divider;
 		private long value;
 		private boolean visible = true;
 
-		Bucket(Bucket previous, TimeUnit timeUnit, long maxValue) {
+		Bucket(Bucket previous, int position, Divider divider) {
+			this.position = position;
+			this.timeUnit = TimeUnits.timeUnit(position);
+			link(previous, divider);
+		}
+
+		private void link(Bucket previous, Divider divider) {
 			this.previous = previous;
-			this.timeUnit = timeUnit;
-			this.maxValue = maxValue;
+			this.maxValue = divider.divisor();
+			this.divider = divider;
 		}
 
 		private void addToValue(long toadd) {
 			long newValue = toadd + this.value;
-			setValue(newValue % this.maxValue);
-			long rest = newValue - this.value;
-			if (rest > 0 && this.previous != null) {
+			if (newValue < 0) {
+				// negative values are not carried
+				setValue(newValue % this.maxValue);
+				return;
+			}
+			long quotient = this.divider.divide(newValue);
+			setValue(newValue - quotient * this.maxValue);
+			if (quotient > 0 && this.previous != null) {
 				// overflow
-				this.previous.addToValue(this.previous.timeUnit.convert(rest,
-						this.timeUnit));
+				this.previous.addToValue(quotient);
 			}
 		}
 
@@ -54,14 +80,16 @@ public class TimeValues implements Iterable<Bucket> {
 		void pollFromLeft() {
 			if (this.previous != null) {
 				this.previous.pollFromLeft();
-				setValue(getValue()
-						+ this.timeUnit.convert(this.previous.getValue(),
-								this.previous.getTimeUnit()));
+				setValue(getValue() + multiply(this.previous.getValue()));
 				this.previous.setValue(0);
 			}
 		}
 
-		private void setValue(long value) {
+		private long multiply(long value) {
+			return TimeValues.multiply(value, this.maxValue);
+		}
+
+		void setValue(long value) {
 			this.value = value;
 		}
 
@@ -69,10 +97,20 @@ public class TimeValues implements Iterable<Bucket> {
 			return this.value;
 		}
 
+		/**
+		 * Returns the TimeUnit of this bucket, <code>null</code> for the
+		 * bucket of weeks.
+		 * 
+		 * @return the TimeUnit of this bucket
+		 */
 		public TimeUnit getTimeUnit() {
 			return this.timeUnit;
 		}
 
+		int getPosition() {
+			return this.position;
+		}
+
 		public boolean isVisible() {
 			return this.visible;
 		}
@@ -97,6 +135,101 @@ public class TimeValues implements Iterable<Bucket> {
 		getBucket(timeUnit).addToValue(value);
 	}
 
+	/**
+	 * Resets all buckets to zero and makes them visible again so this
+	 * instance can be reused instead of creating a new one.
+	 * 
+	 * @return this TimeValues
+	 */
+	public TimeValues reset() {
+		for (Bucket bucket : this.withWeeks == null ? this.buckets
+				: this.withWeeks) {
+			bucket.setValue(0);
+			bucket.setVisible(true);
+		}
+		return weeks(false);
+	}
+
+	/**
+	 * Resets this instance and decomposes the passed value, the state is the
+	 * same as the one of <code>new TimeValues(value, timeUnit)</code>.
+	 * 
+	 * @param value
+	 *            the value to decompose
+	 * @param timeUnit
+	 *            the TimeUnit of <code>value</code>
+	 * @return this TimeValues
+	 */
+	public TimeValues set(long value, TimeUnit timeUnit) {
+		return reset().add(value, timeUnit);
+	}
+
+	/**
+	 * Replaces the state of all buckets (values and visibility) with the one
+	 * of the passed TimeValues.
+	 * 
+	 * @param other
+	 *            the TimeValues to copy
+	 * @return this TimeValues
+	 */
+	TimeValues copyFrom(TimeValues other) {
+		Bucket[] buckets = weeks(other.weeks).shown();
+		Bucket[] others = other.shown();
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i].setValue(others[i].getValue());
+			buckets[i].setVisible(others[i].isVisible());
+		}
+		return this;
+	}
+
+	/**
+	 * Adds weeks as the greatest bucket (in front of DAYS) and carries the
+	 * (non-negative) DAYS into it. From now on this instance behaves like
+	 * one whose greatest unit is weeks (e.g. rounding DAYS or pulling them
+	 * from the left) until it is {@link #reset()}.
+	 * 
+	 * @return this TimeValues
+	 */
+	TimeValues showWeeks() {
+		if (!this.weeks) {
+			weeks(true).buckets[0].addToValue(0);
+		}
+		return this;
+	}
+
+	private TimeValues weeks(boolean weeks) {
+		this.weeks = weeks;
+		Bucket days = this.buckets[0];
+		if (weeks) {
+			if (this.withWeeks == null) {
+				this.withWeeks = new Bucket[this.buckets.length + 1];
+				this.withWeeks[TimeUnits.WEEKS] = new Bucket(null,
+						TimeUnits.WEEKS, TimeUnits.divider(TimeUnits.WEEKS));
+				System.arraycopy(this.buckets, 0, this.withWeeks, 1,
+						this.buckets.length);
+			}
+			Bucket bucket = this.withWeeks[TimeUnits.WEEKS];
+			bucket.setValue(0);
+			bucket.setVisible(true);
+			days.link(bucket, DAYS_PER_WEEK);
+		} else {
+			days.link(null, TimeUnits.divider(days.getPosition()));
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the buckets shown (the one of weeks only if shown), the one at
+	 * bucket position <code>i</code> is at index <code>i - offset()</code>
+	 */
+	private Bucket[] shown() {
+		return this.weeks ? this.withWeeks : this.buckets;
+	}
+
+	private int offset() {
+		return this.weeks ? TimeUnits.WEEKS : TimeUnits.WEEKS + 1;
+	}
+
 	public TimeValues add(long l, TimeUnit timeUnit) {
 		getBucket(timeUnit).addToValue(l);
 		return this;
@@ -112,20 +245,175 @@ public class TimeValues implements Iterable<Bucket> {
 		return this;
 	}
 
+	/**
+	 * Decomposes all passed values at once into one primitive array per
+	 * TimeUnit (structure-of-arrays). Each column is computed in a tight loop
+	 * over all values so the per-value carry recursion of
+	 * {@link Bucket#addToValue(long)} is avoided. Values are carried only up
+	 * to <code>maximum</code> so the column of <code>maximum</code> already
+	 * holds what {@link #pollFromLeft(TimeUnit)} would have pulled into it.
+	 * Rows that cannot be decomposed this way (negative values or values
+	 * whose TimeUnit is greater than <code>maximum</code>) are marked with a
+	 * <code>false</code> in the passed <code>decomposed</code> array.
+	 * <p>
+	 * There is no <code>jdk.incubator.vector</code> variant: the Vector API
+	 * has no lanewise high multiplication of longs and divides longs lane by
+	 * lane (not intrinsified on x86 and AArch64), so it cannot beat the
+	 * {@link Divider} used here (multiply-high on Java 9+). The incubator
+	 * module would also have to be added to the command line of every
+	 * application.
+	 *
+	 * @param values
+	 *            the values to decompose
+	 * @param timeUnit
+	 *            the TimeUnit of all <code>values</code>
+	 * @param maximum
+	 *            the greatest TimeUnit to carry into
+	 * @param decomposed
+	 *            receives per row if the row was decomposed
+	 * @return columns indexed by bucket position, <code>null</code> columns
+	 *         contain zeros only
+	 */
+	static long[][] decompose(long[] values, TimeUnit timeUnit,
+			TimeUnit maximum, boolean[] decomposed) {
+		long[][] columns = new long[TimeUnits.size()][];
+		int idxUnit = TimeUnits.indexOf(timeUnit);
+		int idxMax = TimeUnits.indexOf(maximum);
+		for (int r = 0; r < values.length; r++) {
+			// Long.MAX_VALUE would vanish in the greatest bucket (modulo
+			// Long.MAX_VALUE), leave this to the reference path
+			decomposed[r] = idxUnit >= idxMax && values[r] >= 0
+					&& values[r] != Long.MAX_VALUE;
+		}
+		if (idxUnit < idxMax) {
+			return columns;
+		}
+		long[] rest = new long[values.length];
+		for (int r = 0; r < rest.length; r++) {
+			rest[r] = decomposed[r] ? values[r] : 0;
+		}
+		for (int i = idxUnit; i > idxMax; i--) {
+			Divider divider = TimeUnits.divider(i);
+			long maxValue = divider.divisor();
+			long[] column = new long[rest.length];
+			for (int r = 0; r < rest.length; r++) {
+				long quotient = divider.divide(rest[r]);
+				column[r] = rest[r] - quotient * maxValue;
+				rest[r] = quotient;
+			}
+			columns[i] = column;
+		}
+		columns[idxMax] = rest;
+		return columns;
+	}
+
+	/**
+	 * Replaces the state of all buckets with the row <code>row</code> of the
+	 * passed columns.
+	 *
+	 * @param columns
+	 *            columns as created by
+	 *            {@link #decompose(long[], TimeUnit, TimeUnit, boolean[])}
+	 * @param row
+	 *            the row to load
+	 * @param visible
+	 *            the visibility of the row, bit <code>i</code> is set if the
+	 *            bucket at position <code>i</code> is visible
+	 * @return this TimeValues
+	 */
+	TimeValues load(long[][] columns, int row, int visible) {
+		for (Bucket bucket : this.buckets) {
+			int i = bucket.getPosition();
+			bucket.setValue(columns[i] == null ? 0 : columns[i][row]);
+			bucket.setVisible((visible & 1 << i) != 0);
+		}
+		return weeks(false);
+	}
+
+	/**
+	 * {@link Bucket#addToValue(long)} for the bucket at position
+	 * <code>idx</code> of row <code>row</code> of the passed (non
+	 * <code>null</code>) columns.
+	 */
+	static void addToValue(long[][] columns, int row, int idx, long toadd) {
+		// DAYS are not carried into weeks (see TimeUnits#maxValue)
+		for (int i = idx; i > TimeUnits.WEEKS; i--) {
+			long maxValue = TimeUnits.maxValue(i);
+			long newValue = toadd + columns[i][row];
+			if (newValue < 0) {
+				// negative values are not carried
+				columns[i][row] = newValue % maxValue;
+				return;
+			}
+			long quotient = TimeUnits.divider(i).divide(newValue);
+			columns[i][row] = newValue - quotient * maxValue;
+			if (quotient <= 0) {
+				return;
+			}
+			// overflow
+			toadd = quotient;
+		}
+	}
+
+	/**
+	 * {@link Bucket#pushLeftRounded()} for the bucket at position
+	 * <code>idx</code> of row <code>row</code> of the passed (non
+	 * <code>null</code>) columns.
+	 */
+	static void pushLeftRounded(long[][] columns, int row, int idx) {
+		long maxValue = TimeUnits.maxValue(idx);
+		long half = maxValue / 2;
+		if (columns[idx][row] + half >= maxValue) {
+			addToValue(columns, row, idx, half);
+		} else {
+			columns[idx][row] = 0;
+		}
+	}
+
+	/**
+	 * {@link Bucket#pollFromLeft()} for the bucket at position
+	 * <code>idx</code> of row <code>row</code> of the passed (non
+	 * <code>null</code>) columns.
+	 */
+	static void pollFromLeft(long[][] columns, int row, int idx) {
+		for (int i = 1; i <= idx; i++) {
+			long maxValue = TimeUnits.maxValue(i);
+			columns[i][row] += multiply(columns[i - 1][row], maxValue);
+			columns[i - 1][row] = 0;
+		}
+	}
+
+	/**
+	 * Returns <code>value * maxValue</code> saturated (in both directions)
+	 * like TimeUnit#convert does.
+	 */
+	private static long multiply(long value, long maxValue) {
+		return value > Long.MAX_VALUE / maxValue ? Long.MAX_VALUE
+				: value < Long.MIN_VALUE / maxValue ? Long.MIN_VALUE : value
+						* maxValue;
+	}
+
 	public Bucket getBucket(TimeUnit timeUnit) {
 		return this.buckets[bucketIdx(timeUnit)];
 	}
 
+	/**
+	 * Returns the bucket at the passed position (weeks only if shown).
+	 */
+	Bucket getBucket(int idx) {
+		return shown()[idx - offset()];
+	}
+
 	private int bucketIdx(TimeUnit timeUnit) {
-		return timeUnits.indexOf(timeUnit);
+		return TimeUnits.indexOf(timeUnit) - 1;
 	}
 
 	private static Bucket[] initialize() {
-		Bucket[] buckets = new Bucket[timeUnits.size()];
+		// DAYS are linked to weeks only when showing them
+		Bucket[] buckets = new Bucket[TimeUnits.size() - 1];
 		Bucket previous = null;
-		for (int i = 0; i < timeUnits.size(); i++) {
-			TimeUnit timeUnit = timeUnits.get(i);
-			buckets[i] = new Bucket(previous, timeUnit, maxValues.get(timeUnit));
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new Bucket(previous, i + 1, TimeUnits.divider(i + 1));
 			previous = buckets[i];
 		}
 		return buckets;
@@ -136,7 +424,7 @@ public class TimeValues implements Iterable<Bucket> {
 	}
 
 	private List<Bucket> iterable() {
-		return Arrays.asList(this.buckets);
+		return Arrays.asList(shown());
 	}
 
 	public Iterator<Bucket> reverseIterator() {
@@ -144,29 +432,45 @@ public class TimeValues implements Iterable<Bucket> {
 	}
 
 	public Iterable<Bucket> sequence(TimeUnit timeUnit1, TimeUnit timeUnit2) {
-		final int startIdx = bucketIdx(timeUnit1);
-		final int endIdx = bucketIdx(timeUnit2);
-		return startIdx <= endIdx ? iterable().subList(startIdx, endIdx)
-				: new ReverseIterable<Bucket>(iterable().subList(endIdx + 1,
-						startIdx + 1));
+		return sequence(TimeUnits.indexOf(timeUnit1),
+				TimeUnits.indexOf(timeUnit2));
+	}
+
+	/**
+	 * {@link #sequence(TimeUnit, TimeUnit)} for bucket positions
+	 */
+	Iterable<Bucket> sequence(int startIdx, int endIdx) {
+		int start = startIdx - offset();
+		int end = endIdx - offset();
+		return start <= end ? iterable().subList(start, end)
+				: new ReverseIterable<Bucket>(iterable().subList(end + 1,
+						start + 1));
 	}
 
 	public Iterable<Bucket> sequenceInclude(TimeUnit timeUnit1,
 			TimeUnit timeUnit2) {
-		final int startIdx = bucketIdx(timeUnit1);
-		final int endIdx = bucketIdx(timeUnit2);
-		return startIdx <= endIdx ? iterable().subList(startIdx, endIdx + 1)
-				: new ReverseIterable<Bucket>(iterable().subList(endIdx,
-						startIdx + 1));
+		return sequenceInclude(TimeUnits.indexOf(timeUnit1),
+				TimeUnits.indexOf(timeUnit2));
+	}
+
+	/**
+	 * {@link #sequenceInclude(TimeUnit, TimeUnit)} for bucket positions
+	 */
+	Iterable<Bucket> sequenceInclude(int startIdx, int endIdx) {
+		int start = startIdx - offset();
+		int end = endIdx - offset();
+		return start <= end ? iterable().subList(start, end + 1)
+				: new ReverseIterable<Bucket>(iterable().subList(end,
+						start + 1));
 	}
 
 	public int size() {
-		return this.buckets.length;
+		return shown().length;
 	}
 
 	@Override
 	public String toString() {
-		return "Buckets [buckets=" + Arrays.toString(this.buckets) + "]";
+		return "Buckets [buckets=" + Arrays.toString(shown()) + "]";
 	}
 
 }
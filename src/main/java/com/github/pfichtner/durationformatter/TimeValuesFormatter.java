@@ -0,0 +1,32 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link DurationFormatter} whose work can be split into applying its
+ * strategies to decomposed {@link TimeValues} and joining the result, so
+ * several formatters can share the decomposition and the strategy work.
+ * 
+ * @author Peter Fichtner
+ */
+interface TimeValuesFormatter extends ExtendedDurationFormatter {
+
+	/**
+	 * Formatters with equal keys leave equal TimeValues when applying their
+	 * strategies to equal TimeValues.
+	 * 
+	 * @return the key of the strategy configuration
+	 */
+	Object strategyKey();
+
+	/**
+	 * Returns the precomputed output for the passed duration or
+	 * <code>null</code> if it is not precomputed.
+	 */
+	String lookup(long value, TimeUnit timeUnit);
+
+	TimeValues applyStrategy(TimeValues timeValues);
+
+	StringBuilder join(StringBuilder sb, TimeValues timeValues);
+
+}
@@ -0,0 +1,90 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.WarmUpListener;
+
+/**
+ * Executes all paths of a formatter, see
+ * {@link DurationFormatter.Builder#warmUp(int, WarmUpListener)}.
+ * 
+ * @author Peter Fichtner
+ */
+final class WarmUp {
+
+	private WarmUp() {
+		super();
+	}
+
+	static void run(DurationFormatter formatter, TimeUnit minimum,
+			TimeUnit maximum, int iterations, WarmUpListener listener) {
+		long[] samples = samples(minimum, maximum);
+		TimeUnit[] timeUnits = TimeUnit.values();
+
+		long start = System.nanoTime();
+		formatter.format(samples[samples.length - 1], NANOSECONDS);
+		long firstCall = System.nanoTime() - start;
+
+		StringBuilder sb = new StringBuilder();
+		TimeValues timeValues = new TimeValues();
+		for (int i = 0; i < iterations; i++) {
+			TimeUnit timeUnit = timeUnits[i % timeUnits.length];
+			DurationFormatters.format(formatter, samples, timeUnit);
+			for (long sample : samples) {
+				formatter.format(sample, NANOSECONDS);
+				sb.setLength(0);
+				DurationFormatters.formatTo(formatter, sb, sample, timeUnit);
+				sb.setLength(0);
+				DurationFormatters.formatTo(formatter, sb, timeValues, -sample,
+						NANOSECONDS);
+			}
+			formatter.formatMillis(samples[i % samples.length]);
+			sb.setLength(0);
+			DurationFormatters.formatTo(formatter, sb,
+					samples[i % samples.length] / 1e9, SECONDS);
+		}
+
+		if (listener != null) {
+			start = System.nanoTime();
+			for (long sample : samples) {
+				formatter.format(sample, NANOSECONDS);
+			}
+			listener.warmedUp(firstCall, (System.nanoTime() - start)
+					/ samples.length);
+		}
+	}
+
+	/**
+	 * Returns values (in nanoseconds) for the units between minimum and
+	 * maximum and their neighbours: zero, one, the rounding edges and the
+	 * greatest value of the unit.
+	 */
+	static long[] samples(TimeUnit minimum, TimeUnit maximum) {
+		int from = Math.max(TimeUnits.WEEKS + 1,
+				TimeUnits.indexOf(maximum) - 1);
+		int to = Math.min(TimeUnits.size() - 1, TimeUnits.indexOf(minimum) + 1);
+		List<Long> samples = new ArrayList<Long>();
+		samples.add(Long.valueOf(0));
+		for (int i = from; i <= to; i++) {
+			long nanos = TimeUnits.timeUnit(i).toNanos(1);
+			long half = nanos / 2;
+			samples.add(Long.valueOf(nanos));
+			samples.add(Long.valueOf(half - 1));
+			samples.add(Long.valueOf(half));
+			samples.add(Long.valueOf(nanos - 1));
+			samples.add(Long.valueOf(nanos * 3 + half));
+		}
+		samples.add(Long.valueOf(Long.MAX_VALUE));
+		long[] result = new long[samples.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = samples.get(i).longValue();
+		}
+		return result;
+	}
+
+}
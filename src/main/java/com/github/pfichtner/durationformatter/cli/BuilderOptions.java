@@ -0,0 +1,134 @@
+package com.github.pfichtner.durationformatter.cli;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+/**
+ * The command line options configuring a {@link Builder}, shared by the
+ * command line tools (part of each of their artifacts, not of the core jar).
+ * Malformed or unknown options are reported by an
+ * {@link IllegalArgumentException}.
+ *
+ * @author Peter Fichtner
+ */
+public final class BuilderOptions {
+
+	/**
+	 * Usage lines of the options handled by
+	 * {@link #configure(Builder, String, String)}.
+	 */
+	public static final String USAGE = "" //
+			+ "  --minimum <TimeUnit>\n" //
+			+ "  --maximum <TimeUnit>\n" //
+			+ "  --separator <string>\n" //
+			+ "  --value-symbol-separator <string>\n" //
+			+ "  --suppress-zeros <LEADING,TRAILING,MIDDLE>\n" //
+			+ "  --maximum-units <n>\n" //
+			+ "  --round true|false";
+
+	private BuilderOptions() {
+		super();
+	}
+
+	/**
+	 * Returns the base Builder named by the value of <code>--builder</code>.
+	 *
+	 * @param value
+	 *            <code>DIGITS</code> or <code>SYMBOLS</code>
+	 * @return the predefined Builder
+	 */
+	public static Builder base(String value) {
+		return "SYMBOLS".equals(value) ? Builder.SYMBOLS : "DIGITS"
+				.equals(value) ? Builder.DIGITS : BuilderOptions
+				.<Builder> unknown("--builder", value);
+	}
+
+	/**
+	 * Returns if the passed option is handled by
+	 * {@link #configure(Builder, String, String)}.
+	 *
+	 * @param option
+	 *            the option (including the leading dashes)
+	 * @return <code>true</code> if the option configures the Builder
+	 */
+	public static boolean isBuilderOption(String option) {
+		return "--minimum".equals(option) || "--maximum".equals(option)
+				|| "--separator".equals(option)
+				|| "--value-symbol-separator".equals(option)
+				|| "--suppress-zeros".equals(option)
+				|| "--maximum-units".equals(option)
+				|| "--round".equals(option);
+	}
+
+	/**
+	 * Applies the passed option to the Builder.
+	 *
+	 * @param builder
+	 *            the Builder to configure
+	 * @param option
+	 *            the option (including the leading dashes)
+	 * @param value
+	 *            the value of the option
+	 * @return new Builder instance
+	 */
+	public static Builder configure(Builder builder, String option,
+			String value) {
+		if ("--minimum".equals(option)) {
+			return builder.minimum(TimeUnit.valueOf(value));
+		} else if ("--maximum".equals(option)) {
+			return builder.maximum(TimeUnit.valueOf(value));
+		} else if ("--separator".equals(option)) {
+			return builder.separator(unescape(value));
+		} else if ("--value-symbol-separator".equals(option)) {
+			return builder.valueSymbolSeparator(unescape(value));
+		} else if ("--suppress-zeros".equals(option)) {
+			return builder.suppressZeros(suppressZeros(value));
+		} else if ("--maximum-units".equals(option)) {
+			return builder.maximumAmountOfUnitsToShow(Integer.parseInt(value));
+		} else if ("--round".equals(option)) {
+			return builder.round(Boolean.parseBoolean(value));
+		}
+		return unknown(option, value);
+	}
+
+	/**
+	 * Replaces the escape sequences <code>\n</code>, <code>\r</code> and
+	 * <code>\t</code> by the characters they stand for.
+	 *
+	 * @param value
+	 *            the value as passed on the command line
+	 * @return the unescaped value
+	 */
+	public static String unescape(String value) {
+		return value.replace("\\n", "\n").replace("\\r", "\r")
+				.replace("\\t", "\t");
+	}
+
+	/**
+	 * Reports an unknown option or value.
+	 *
+	 * @param option
+	 *            the option
+	 * @param value
+	 *            its value
+	 * @return never returns
+	 * @throws IllegalArgumentException
+	 *             always
+	 */
+	public static <T> T unknown(String option, String value) {
+		throw new IllegalArgumentException("Unknown option " + option + " "
+				+ value);
+	}
+
+	private static SuppressZeros[] suppressZeros(String value) {
+		String[] names = value.split(",");
+		SuppressZeros[] result = new SuppressZeros[names.length];
+		for (int i = 0; i < names.length; i++) {
+			result[i] = SuppressZeros.valueOf(names[i].trim());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,311 @@
+package com.github.pfichtner.durationformatter.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatters;
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.TimeValues;
+import com.github.pfichtner.durationformatter.cli.BuilderOptions;
+
+/**
+ * Serves configured DurationFormatters over TCP so non-JVM components get
+ * exactly the same Strings. One selector thread handles all connections.
+ * Clients may pipeline any amount of requests, all complete requests
+ * received with one selector wake-up are formatted as one batch directly
+ * into the response buffer of the connection which is then written at once.
+ * Responses are sent in request order. If a client does not read its
+ * responses the server stops reading its requests (backpressure).
+ * <p>
+ * Request (big endian, {@value #REQUEST_SIZE} bytes): formatter id (unsigned
+ * byte, index of the formatter), TimeUnit (byte, ordinal of
+ * {@link TimeUnit}), value (long).
+ * <p>
+ * Response: length (unsigned short) followed by as many bytes of UTF-8, a
+ * length of {@value #ERROR} (without bytes) signals an unknown formatter or
+ * TimeUnit.
+ * 
+ * @author Peter Fichtner
+ */
+public class DurationFormatServer implements Closeable {
+
+	public static final int REQUEST_SIZE = 10;
+
+	public static final int ERROR = 0xFFFF;
+
+	private static final TimeUnit[] TIME_UNITS = TimeUnit.values();
+
+	/**
+	 * stop reading requests of a connection if this many response bytes are
+	 * not written yet
+	 */
+	private static final int HIGH_WATER_MARK = 64 * 1024;
+
+	private static class Connection {
+
+		private final ByteBuffer in = ByteBuffer
+				.allocateDirect(REQUEST_SIZE * 4096);
+		private ByteBuffer out = ByteBuffer.allocateDirect(2 * HIGH_WATER_MARK);
+
+		private void ensureWritable(int bytes) {
+			if (this.out.remaining() < bytes) {
+				ByteBuffer out = ByteBuffer.allocateDirect(Math.max(
+						this.out.capacity() * 2, this.out.position() + bytes));
+				this.out.flip();
+				this.out = out.put(this.out);
+			}
+		}
+
+	}
+
+	private final DurationFormatter[] formatters;
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+
+	// only used by the selector thread
+	private final StringBuilder sb = new StringBuilder();
+	private final TimeValues timeValues = new TimeValues();
+	private final CharsetEncoder encoder = Charset.forName("UTF-8")
+			.newEncoder();
+	private char[] chars = new char[64];
+	private CharBuffer charBuffer = CharBuffer.wrap(this.chars);
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates a new server bound to the passed address.
+	 * 
+	 * @param address
+	 *            the address to bind to (port 0 for an ephemeral port)
+	 * @param formatters
+	 *            the formatters to serve, the id of a formatter is its index
+	 * @throws IOException
+	 *             if the server cannot be bound
+	 */
+	public DurationFormatServer(InetSocketAddress address,
+			DurationFormatter... formatters) throws IOException {
+		if (formatters.length > 256) {
+			throw new IllegalArgumentException("At most 256 formatters");
+		}
+		this.formatters = formatters.clone();
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.socket().bind(address);
+		this.serverChannel.configureBlocking(false);
+		this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+	}
+
+	public InetSocketAddress getLocalAddress() {
+		return (InetSocketAddress) this.serverChannel.socket()
+				.getLocalSocketAddress();
+	}
+
+	/**
+	 * Serves requests until {@link #close()} is called.
+	 * 
+	 * @throws IOException
+	 *             if the selector fails
+	 */
+	public void run() throws IOException {
+		try {
+			while (!this.closed) {
+				this.selector.select();
+				Iterator<SelectionKey> keys = this.selector.selectedKeys()
+						.iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (key.isValid()) {
+						handle(key);
+					}
+				}
+			}
+		} finally {
+			for (SelectionKey key : this.selector.keys()) {
+				key.channel().close();
+			}
+			this.selector.close();
+		}
+	}
+
+	private void handle(SelectionKey key) throws IOException {
+		if (key.isAcceptable()) {
+			SocketChannel channel = this.serverChannel.accept();
+			if (channel != null) {
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				channel.register(this.selector, SelectionKey.OP_READ,
+						new Connection());
+			}
+			return;
+		}
+		Connection connection = (Connection) key.attachment();
+		try {
+			if (key.isReadable()
+					&& ((SocketChannel) key.channel()).read(connection.in) < 0) {
+				key.channel().close();
+				return;
+			}
+			serve(key, connection);
+		} catch (IOException e) {
+			// connection reset, ...
+			key.channel().close();
+		}
+	}
+
+	/**
+	 * Formats all complete requests read so far (unless too many response
+	 * bytes are pending).
+	 */
+	private void process(Connection connection) {
+		ByteBuffer in = connection.in;
+		in.flip();
+		while (in.remaining() >= REQUEST_SIZE
+				&& connection.out.position() < HIGH_WATER_MARK) {
+			int formatterId = in.get() & 0xFF;
+			int unit = in.get();
+			long value = in.getLong();
+			if (formatterId >= this.formatters.length || unit < 0
+					|| unit >= TIME_UNITS.length) {
+				connection.ensureWritable(2);
+				connection.out.putShort((short) ERROR);
+			} else {
+				this.sb.setLength(0);
+				DurationFormatters.formatTo(this.formatters[formatterId],
+						this.sb, this.timeValues, value, TIME_UNITS[unit]);
+				encode(connection);
+			}
+		}
+		in.compact();
+	}
+
+	private void encode(Connection connection) {
+		int length = this.sb.length();
+		if (this.chars.length < length) {
+			this.chars = new char[Math.max(length, this.chars.length * 2)];
+			this.charBuffer = CharBuffer.wrap(this.chars);
+		}
+		this.sb.getChars(0, length, this.chars, 0);
+		this.charBuffer.clear();
+		this.charBuffer.limit(length);
+		// UTF-8 needs at most three bytes per char
+		connection.ensureWritable(2 + 3 * length);
+		ByteBuffer out = connection.out;
+		int start = out.position();
+		out.putShort((short) 0);
+		this.encoder.reset();
+		this.encoder.encode(this.charBuffer, out, true);
+		this.encoder.flush(out);
+		int bytes = out.position() - start - 2;
+		if (bytes >= ERROR) {
+			out.position(start);
+			out.putShort((short) ERROR);
+		} else {
+			out.putShort(start, (short) bytes);
+		}
+	}
+
+	private void serve(SelectionKey key, Connection connection)
+			throws IOException {
+		boolean written;
+		do {
+			process(connection);
+			written = write(key, connection);
+			// requests left because of the high water mark
+		} while (written && connection.in.position() >= REQUEST_SIZE);
+		// read again when all responses are written, write when possible
+		// otherwise
+		key.interestOps(written ? SelectionKey.OP_READ
+				: SelectionKey.OP_WRITE);
+	}
+
+	/**
+	 * Writes the pending responses.
+	 * 
+	 * @return <code>true</code> if all responses were written
+	 */
+	private boolean write(SelectionKey key, Connection connection)
+			throws IOException {
+		ByteBuffer out = connection.out;
+		out.flip();
+		((SocketChannel) key.channel()).write(out);
+		out.compact();
+		return out.position() == 0;
+	}
+
+	public void close() {
+		this.closed = true;
+		this.selector.wakeup();
+	}
+
+	public static void main(String[] args) throws IOException {
+		List<Builder> builders = new ArrayList<Builder>();
+		InetAddress bindAddress = InetAddress.getByName("127.0.0.1");
+		int port = 7070;
+		try {
+			for (int i = 0; i < args.length; i += 2) {
+				String option = args[i];
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Value missing for "
+							+ option);
+				}
+				String value = args[i + 1];
+				if ("--port".equals(option)) {
+					port = Integer.parseInt(value);
+				} else if ("--bind".equals(option)) {
+					bindAddress = InetAddress.getByName(value);
+				} else if ("--builder".equals(option)) {
+					builders.add(BuilderOptions.base(value));
+				} else if (builders.isEmpty()) {
+					throw new IllegalArgumentException(option
+							+ " before first --builder");
+				} else {
+					int last = builders.size() - 1;
+					builders.set(last, BuilderOptions.configure(
+							builders.get(last), option, value));
+				}
+			}
+			if (builders.isEmpty()) {
+				builders.add(Builder.DIGITS);
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+			System.exit(2);
+		}
+		DurationFormatter[] formatters = new DurationFormatter[builders.size()];
+		for (int i = 0; i < formatters.length; i++) {
+			formatters[i] = builders.get(i).build();
+		}
+		DurationFormatServer server = new DurationFormatServer(
+				new InetSocketAddress(bindAddress, port), formatters);
+		System.err.println("Serving " + formatters.length
+				+ " formatter(s) on " + server.getLocalAddress());
+		server.run();
+	}
+
+	private static void usage() {
+		System.err.println("usage: " + DurationFormatServer.class.getName()
+				+ " [options] (--builder DIGITS|SYMBOLS [builder options])...\n" //
+				+ "  --port <port>                      (7070)\n" //
+				+ "  --bind <address>                   (127.0.0.1)\n" //
+				+ " each --builder adds a formatter (ids starting at 0), builder options:\n" //
+				+ BuilderOptions.USAGE);
+	}
+
+}
@@ -0,0 +1,251 @@
+package com.github.pfichtner.durationformatter.server;
+
+import static com.github.pfichtner.durationformatter.server.DurationFormatServer.ERROR;
+import static com.github.pfichtner.durationformatter.server.DurationFormatServer.REQUEST_SIZE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput and latency of a {@link DurationFormatServer}. Each
+ * connection sends windows of pipelined requests and waits for all responses
+ * of a window before sending the next one, the latency is measured per
+ * window (time from sending the first request until the last response was
+ * received).
+ * 
+ * @author Peter Fichtner
+ */
+public class LoadGenerator {
+
+	public static class Result {
+
+		private final long requests;
+		private final long nanos;
+		private final long[] latencies;
+		private final long errors;
+
+		public Result(long requests, long nanos, long[] latencies, long errors) {
+			this.requests = requests;
+			this.nanos = nanos;
+			this.latencies = latencies.clone();
+			this.errors = errors;
+			Arrays.sort(this.latencies);
+		}
+
+		public long getRequests() {
+			return this.requests;
+		}
+
+		public long getErrors() {
+			return this.errors;
+		}
+
+		public double requestsPerSecond() {
+			return this.requests * 1e9 / this.nanos;
+		}
+
+		/**
+		 * Returns the window latency at the passed percentile.
+		 * 
+		 * @param percentile
+		 *            the percentile (0-100)
+		 * @return latency in nanoseconds
+		 */
+		public long latencyNanos(double percentile) {
+			if (this.latencies.length == 0) {
+				return 0;
+			}
+			int idx = (int) Math.ceil(percentile / 100 * this.latencies.length) - 1;
+			return this.latencies[Math.max(0,
+					Math.min(idx, this.latencies.length - 1))];
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d requests (%d errors), %.0f requests/s, "
+					+ "window latency p50 %dµs p99 %dµs p99.9 %dµs",
+					this.requests, this.errors, requestsPerSecond(),
+					TimeUnit.NANOSECONDS.toMicros(latencyNanos(50)),
+					TimeUnit.NANOSECONDS.toMicros(latencyNanos(99)),
+					TimeUnit.NANOSECONDS.toMicros(latencyNanos(99.9)));
+		}
+
+	}
+
+	private class Worker extends Thread {
+
+		private final long windows;
+		private final long[] latencies;
+		private final Random random;
+		private long errors;
+		private IOException failure;
+
+		public Worker(long windows, long seed) {
+			this.windows = windows;
+			this.latencies = new long[(int) windows];
+			this.random = new Random(seed);
+		}
+
+		@Override
+		public void run() {
+			try {
+				SocketChannel channel = SocketChannel
+						.open(LoadGenerator.this.address);
+				try {
+					channel.socket().setTcpNoDelay(true);
+					ByteBuffer requests = ByteBuffer
+							.allocateDirect(LoadGenerator.this.window
+									* REQUEST_SIZE);
+					ByteBuffer responses = ByteBuffer.allocateDirect(64 * 1024);
+					for (int w = 0; w < this.windows; w++) {
+						requests.clear();
+						for (int i = 0; i < LoadGenerator.this.window; i++) {
+							requests.put((byte) this.random
+									.nextInt(LoadGenerator.this.formatters));
+							requests.put((byte) TimeUnit.MILLISECONDS
+									.ordinal());
+							requests.putLong(this.random.nextInt(Integer.MAX_VALUE));
+						}
+						requests.flip();
+						long start = System.nanoTime();
+						while (requests.hasRemaining()) {
+							channel.write(requests);
+						}
+						readResponses(channel, responses);
+						this.latencies[w] = System.nanoTime() - start;
+					}
+				} finally {
+					channel.close();
+				}
+			} catch (IOException e) {
+				this.failure = e;
+			}
+		}
+
+		private void readResponses(SocketChannel channel, ByteBuffer responses)
+				throws IOException {
+			int pending = LoadGenerator.this.window;
+			while (pending > 0) {
+				if (channel.read(responses) < 0) {
+					throw new IOException("Connection closed by server");
+				}
+				responses.flip();
+				while (pending > 0 && responses.remaining() >= 2) {
+					int length = responses.getShort(responses.position()) & 0xFFFF;
+					int size = length == ERROR ? 2 : 2 + length;
+					if (responses.remaining() < size) {
+						break;
+					}
+					this.errors += length == ERROR ? 1 : 0;
+					responses.position(responses.position() + size);
+					pending--;
+				}
+				responses.compact();
+			}
+		}
+
+	}
+
+	private final InetSocketAddress address;
+	private final int connections;
+	private final int window;
+	private final int formatters;
+
+	/**
+	 * Creates a new LoadGenerator.
+	 * 
+	 * @param address
+	 *            the address of the server
+	 * @param connections
+	 *            amount of concurrent connections
+	 * @param window
+	 *            amount of requests pipelined per connection
+	 * @param formatters
+	 *            amount of formatters served (requests use random ids
+	 *            between 0 and <code>formatters</code> - 1)
+	 */
+	public LoadGenerator(InetSocketAddress address, int connections,
+			int window, int formatters) {
+		this.address = address;
+		this.connections = connections;
+		this.window = window;
+		this.formatters = formatters;
+	}
+
+	/**
+	 * Sends <code>windows</code> windows of requests on each connection.
+	 * 
+	 * @param windows
+	 *            windows per connection
+	 * @return the result
+	 * @throws IOException
+	 *             if a connection failed
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the connections
+	 */
+	public Result run(long windows) throws IOException, InterruptedException {
+		Worker[] workers = new Worker[this.connections];
+		long start = System.nanoTime();
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(windows, i);
+			workers[i].start();
+		}
+		long[] latencies = new long[(int) (windows * workers.length)];
+		long errors = 0;
+		for (int i = 0; i < workers.length; i++) {
+			workers[i].join();
+			if (workers[i].failure != null) {
+				throw workers[i].failure;
+			}
+			System.arraycopy(workers[i].latencies, 0, latencies,
+					(int) (i * windows), (int) windows);
+			errors += workers[i].errors;
+		}
+		return new Result(windows * workers.length * this.window,
+				System.nanoTime() - start, latencies, errors);
+	}
+
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		String host = "127.0.0.1";
+		int port = 7070;
+		int connections = 4;
+		int window = 64;
+		int formatters = 1;
+		long windows = 10000;
+		for (int i = 0; i < args.length - 1; i += 2) {
+			String option = args[i];
+			String value = args[i + 1];
+			if ("--host".equals(option)) {
+				host = value;
+			} else if ("--port".equals(option)) {
+				port = Integer.parseInt(value);
+			} else if ("--connections".equals(option)) {
+				connections = Integer.parseInt(value);
+			} else if ("--window".equals(option)) {
+				window = Integer.parseInt(value);
+			} else if ("--formatters".equals(option)) {
+				formatters = Integer.parseInt(value);
+			} else if ("--windows".equals(option)) {
+				windows = Long.parseLong(value);
+			} else {
+				System.err.println("usage: " + LoadGenerator.class.getName()
+						+ " [--host 127.0.0.1] [--port 7070]"
+						+ " [--connections 4] [--window 64]"
+						+ " [--formatters 1] [--windows 10000]");
+				System.exit(2);
+			}
+		}
+		LoadGenerator generator = new LoadGenerator(new InetSocketAddress(
+				host, port), connections, window, formatters);
+		// warm up
+		generator.run(Math.max(1, windows / 10));
+		System.out.println(generator.run(windows));
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.github.pfichtner.durationformatter.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatters;
+
+/**
+ * Mutable container that formats durations directly into a StringBuilder
+ * joining them with a delimiter. Each (parallel) stream leaf gets its own
+ * instance, merging only links the parts of the other joiner so the
+ * characters are copied only once when {@link #toString()} is called. The
+ * delimiters are part of the parts, durations added after a merge are
+ * appended to the last part. Instances are not threadsafe.
+ * 
+ * @author Peter Fichtner
+ */
+public class DurationJoiner {
+
+	private final DurationFormatter formatter;
+	private final TimeUnit timeUnit;
+	private final String delimiter;
+
+	private List<StringBuilder> parts = new ArrayList<StringBuilder>();
+
+	/**
+	 * whether a duration was added, durations can be formatted to an empty
+	 * String so the length of the parts does not tell
+	 */
+	private boolean hasElements;
+
+	public DurationJoiner(DurationFormatter formatter, TimeUnit timeUnit,
+			CharSequence delimiter) {
+		this.formatter = formatter;
+		this.timeUnit = timeUnit;
+		this.delimiter = delimiter.toString();
+		this.parts.add(new StringBuilder());
+	}
+
+	/**
+	 * Formats the passed duration and appends it.
+	 * 
+	 * @param value
+	 *            the duration to format (in the TimeUnit of this joiner)
+	 * @return this joiner
+	 */
+	public DurationJoiner add(long value) {
+		StringBuilder last = last();
+		if (this.hasElements) {
+			last.append(this.delimiter);
+		}
+		DurationFormatters.formatTo(this.formatter, last, value, this.timeUnit);
+		this.hasElements = true;
+		return this;
+	}
+
+	/**
+	 * Appends all durations of the other joiner (which must not be used
+	 * afterwards).
+	 * 
+	 * @param other
+	 *            the joiner to append
+	 * @return this joiner
+	 */
+	public DurationJoiner merge(DurationJoiner other) {
+		if (other.hasElements) {
+			if (this.hasElements) {
+				last().append(this.delimiter);
+				this.parts.addAll(other.parts);
+			} else {
+				this.parts = other.parts;
+				this.hasElements = true;
+			}
+		}
+		return this;
+	}
+
+	private StringBuilder last() {
+		return this.parts.get(this.parts.size() - 1);
+	}
+
+	/**
+	 * Appends the joined durations to the passed StringBuilder.
+	 * 
+	 * @param sb
+	 *            the StringBuilder to append to
+	 * @return the passed StringBuilder
+	 */
+	public StringBuilder appendTo(StringBuilder sb) {
+		int length = 0;
+		for (StringBuilder part : this.parts) {
+			length += part.length();
+		}
+		sb.ensureCapacity(sb.length() + length);
+		for (StringBuilder part : this.parts) {
+			sb.append(part);
+		}
+		return sb;
+	}
+
+	@Override
+	public String toString() {
+		return this.parts.size() == 1 ? this.parts.get(0).toString()
+				: appendTo(new StringBuilder()).toString();
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.github.pfichtner.durationformatter.stream;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.LongStream;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatters;
+
+/**
+ * Integration of {@link DurationFormatter}s into <code>java.util.stream</code>.
+ * 
+ * @author Peter Fichtner
+ */
+public final class DurationStreams {
+
+	private DurationStreams() {
+		super();
+	}
+
+	/**
+	 * Collector that formats and joins durations into one String. Parallel
+	 * streams format into one StringBuilder per leaf and merge without
+	 * copying, no String per duration is created.
+	 * 
+	 * @param formatter
+	 *            the formatter to use
+	 * @param timeUnit
+	 *            the TimeUnit of the durations
+	 * @param delimiter
+	 *            the delimiter between the durations
+	 * @return Collector joining the formatted durations
+	 */
+	public static Collector<Long, DurationJoiner, String> joining(
+			DurationFormatter formatter, TimeUnit timeUnit,
+			CharSequence delimiter) {
+		return Collector.of(joiner(formatter, timeUnit, delimiter),
+				DurationJoiner::add, DurationJoiner::merge,
+				DurationJoiner::toString);
+	}
+
+	/**
+	 * Like {@link #joining(DurationFormatter, TimeUnit, CharSequence)} but for
+	 * {@link LongStream}s so the durations are not boxed.
+	 * 
+	 * @param stream
+	 *            the durations to format
+	 * @param formatter
+	 *            the formatter to use
+	 * @param timeUnit
+	 *            the TimeUnit of the durations
+	 * @param delimiter
+	 *            the delimiter between the durations
+	 * @return joiner containing the formatted durations
+	 */
+	public static DurationJoiner join(LongStream stream,
+			DurationFormatter formatter, TimeUnit timeUnit,
+			CharSequence delimiter) {
+		return stream.collect(joiner(formatter, timeUnit, delimiter),
+				DurationJoiner::add, DurationJoiner::merge);
+	}
+
+	/**
+	 * Supplier of new {@link DurationJoiner}s, e.g. to be used with
+	 * {@link LongStream#collect(Supplier, java.util.function.ObjLongConsumer, java.util.function.BiConsumer)}.
+	 * 
+	 * @param formatter
+	 *            the formatter to use
+	 * @param timeUnit
+	 *            the TimeUnit of the durations
+	 * @param delimiter
+	 *            the delimiter between the durations
+	 * @return supplier of new joiners
+	 */
+	public static Supplier<DurationJoiner> joiner(
+			final DurationFormatter formatter, final TimeUnit timeUnit,
+			final CharSequence delimiter) {
+		return () -> new DurationJoiner(formatter, timeUnit, delimiter);
+	}
+
+	/**
+	 * Function to be used with {@link LongStream#mapToObj(LongFunction)}. Each
+	 * worker thread formats into its own reused StringBuilder so only the
+	 * resulting String is allocated per duration.
+	 * 
+	 * @param formatter
+	 *            the formatter to use
+	 * @param timeUnit
+	 *            the TimeUnit of the durations
+	 * @return function formatting durations
+	 */
+	public static LongFunction<String> formatting(
+			final DurationFormatter formatter, final TimeUnit timeUnit) {
+		final ThreadLocal<StringBuilder> buffers = ThreadLocal
+				.withInitial(StringBuilder::new);
+		return value -> {
+			StringBuilder sb = buffers.get();
+			sb.setLength(0);
+			return DurationFormatters.formatTo(formatter, sb, value, timeUnit)
+					.toString();
+		};
+	}
+
+}
@@ -0,0 +1,292 @@
+package com.github.pfichtner.durationformatter.tool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatters;
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.cli.BuilderOptions;
+
+/**
+ * Converts binary files of 64-bit durations into text. The input file is
+ * memory mapped in large windows, the chunks of a window are formatted in
+ * parallel into one reused buffer per worker (no String per record), encoded
+ * into recycled output buffers and written in input order to the output
+ * channel while the next chunks are being formatted.
+ * 
+ * @author Peter Fichtner
+ */
+public class DurationFileConverter {
+
+	private static final int RECORD_SIZE = 8;
+
+	/**
+	 * maximum size of a mapped window of the input (a multiple of the chunk
+	 * size unless a chunk is larger)
+	 */
+	private static final long WINDOW_SIZE = 1L << 30;
+
+	private final DurationFormatter formatter;
+	private final TimeUnit timeUnit;
+	private final String delimiter;
+	private final ByteOrder byteOrder;
+	private final Charset charset;
+	private final int threads;
+	private final int recordsPerChunk;
+
+	private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder();
+		}
+	};
+
+	private final ThreadLocal<CharsetEncoder> encoders = new ThreadLocal<CharsetEncoder>() {
+		@Override
+		protected CharsetEncoder initialValue() {
+			return DurationFileConverter.this.charset.newEncoder();
+		}
+	};
+
+	/**
+	 * encoded chunks already written, a worker's last output may still be
+	 * pending while it formats the next chunk, so the buffers are recycled
+	 * after writing instead of being owned by a worker
+	 */
+	private final Queue<ByteBuffer> outputs = new ConcurrentLinkedQueue<ByteBuffer>();
+
+	public DurationFileConverter(DurationFormatter formatter,
+			TimeUnit timeUnit, String delimiter, ByteOrder byteOrder,
+			Charset charset, int threads, int recordsPerChunk) {
+		this.formatter = formatter;
+		this.timeUnit = timeUnit;
+		this.delimiter = delimiter;
+		this.byteOrder = byteOrder;
+		this.charset = charset;
+		this.threads = threads;
+		this.recordsPerChunk = recordsPerChunk;
+	}
+
+	/**
+	 * Converts all records of <code>input</code> and writes them to
+	 * <code>output</code>.
+	 * 
+	 * @param input
+	 *            the binary file to read
+	 * @param output
+	 *            the text file to write
+	 * @return the amount of records converted
+	 * @throws IOException
+	 *             on read/write errors or if the size of <code>input</code>
+	 *             is not a multiple of 8
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for formatted chunks
+	 */
+	public long convert(File input, File output) throws IOException,
+			InterruptedException {
+		FileInputStream is = new FileInputStream(input);
+		try {
+			FileOutputStream os = new FileOutputStream(output);
+			try {
+				return convert(is.getChannel(), os.getChannel());
+			} finally {
+				os.close();
+			}
+		} finally {
+			is.close();
+		}
+	}
+
+	private long convert(final FileChannel in, FileChannel out)
+			throws IOException, InterruptedException {
+		long size = in.size();
+		if (size % RECORD_SIZE != 0) {
+			throw new IOException("Input size " + size
+					+ " is not a multiple of " + RECORD_SIZE);
+		}
+		long chunkSize = (long) this.recordsPerChunk * RECORD_SIZE;
+		long windowSize = Math.max(1, WINDOW_SIZE / chunkSize) * chunkSize;
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		try {
+			Queue<Future<ByteBuffer>> pending = new LinkedList<Future<ByteBuffer>>();
+			for (long window = 0; window < size; window += windowSize) {
+				MappedByteBuffer mapped = in.map(MapMode.READ_ONLY, window,
+						Math.min(windowSize, size - window));
+				for (long position = 0; position < mapped.capacity(); position += chunkSize) {
+					ByteBuffer view = mapped.duplicate();
+					view.limit((int) Math.min(position + chunkSize,
+							mapped.capacity()));
+					view.position((int) position);
+					final ByteBuffer chunk = view.slice();
+					pending.add(executor.submit(new Callable<ByteBuffer>() {
+						public ByteBuffer call() throws IOException {
+							return convertChunk(chunk);
+						}
+					}));
+					// keep every worker busy while the oldest chunk is written
+					if (pending.size() >= this.threads * 2) {
+						write(out, pending.remove());
+					}
+				}
+			}
+			while (!pending.isEmpty()) {
+				write(out, pending.remove());
+			}
+			return size / RECORD_SIZE;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ByteBuffer convertChunk(ByteBuffer chunk)
+			throws CharacterCodingException {
+		chunk.order(this.byteOrder);
+		StringBuilder sb = this.buffers.get();
+		sb.setLength(0);
+		while (chunk.hasRemaining()) {
+			DurationFormatters.formatTo(this.formatter, sb, chunk.getLong(),
+					this.timeUnit).append(this.delimiter);
+		}
+		return encode(CharBuffer.wrap(sb));
+	}
+
+	/**
+	 * Encodes the passed chars into a recycled (or new) output buffer,
+	 * growing it if the estimate was too small.
+	 */
+	private ByteBuffer encode(CharBuffer in) throws CharacterCodingException {
+		CharsetEncoder encoder = this.encoders.get().reset();
+		int estimate = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(in
+				.remaining() * (double) encoder.averageBytesPerChar()));
+		ByteBuffer out = this.outputs.poll();
+		if (out == null || out.capacity() < estimate) {
+			out = ByteBuffer.allocate(Math.max(16, estimate));
+		}
+		for (;;) {
+			CoderResult result = encoder.encode(in, out, true);
+			if (result.isUnderflow()) {
+				result = encoder.flush(out);
+				if (result.isUnderflow()) {
+					out.flip();
+					return out;
+				}
+			}
+			if (!result.isOverflow()) {
+				result.throwException();
+			}
+			out.flip();
+			out = ByteBuffer.allocate(out.capacity() * 2).put(out);
+		}
+	}
+
+	private void write(FileChannel out, Future<ByteBuffer> future)
+			throws IOException, InterruptedException {
+		ByteBuffer buffer;
+		try {
+			buffer = future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(String.valueOf(cause));
+		}
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+		this.outputs.add(buffer);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Builder builder = Builder.DIGITS;
+		TimeUnit timeUnit = TimeUnit.NANOSECONDS;
+		String delimiter = "\n";
+		ByteOrder byteOrder = ByteOrder.BIG_ENDIAN;
+		Charset charset = Charset.forName("UTF-8");
+		int threads = Runtime.getRuntime().availableProcessors();
+		int recordsPerChunk = 1 << 20;
+		int i = 0;
+		try {
+			for (; i < args.length - 1 && args[i].startsWith("--"); i += 2) {
+				String option = args[i];
+				String value = args[i + 1];
+				if ("--unit".equals(option)) {
+					timeUnit = TimeUnit.valueOf(value);
+				} else if ("--builder".equals(option)) {
+					builder = BuilderOptions.base(value);
+				} else if (BuilderOptions.isBuilderOption(option)) {
+					builder = BuilderOptions.configure(builder, option, value);
+				} else if ("--delimiter".equals(option)) {
+					delimiter = BuilderOptions.unescape(value);
+				} else if ("--byte-order".equals(option)) {
+					byteOrder = "LITTLE_ENDIAN".equals(value) ? ByteOrder.LITTLE_ENDIAN
+							: "BIG_ENDIAN".equals(value) ? ByteOrder.BIG_ENDIAN
+									: BuilderOptions.<ByteOrder> unknown(
+											option, value);
+				} else if ("--charset".equals(option)) {
+					charset = Charset.forName(value);
+				} else if ("--threads".equals(option)) {
+					threads = Integer.parseInt(value);
+				} else if ("--chunk".equals(option)) {
+					recordsPerChunk = Integer.parseInt(value);
+				} else {
+					BuilderOptions.unknown(option, value);
+				}
+			}
+			if (args.length - i != 2) {
+				throw new IllegalArgumentException("input and output missing");
+			}
+			DurationFileConverter converter = new DurationFileConverter(
+					builder.build(), timeUnit, delimiter, byteOrder, charset,
+					threads, recordsPerChunk);
+			converter.convert(new File(args[i]), new File(args[i + 1]));
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+			System.exit(2);
+		} catch (IllegalStateException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static void usage() {
+		System.err.println("usage: " + DurationFileConverter.class.getName()
+				+ " [options] input output\n" //
+				+ "  --unit <TimeUnit>                  unit of the records (NANOSECONDS)\n" //
+				+ "  --byte-order BIG_ENDIAN|LITTLE_ENDIAN  (BIG_ENDIAN)\n" //
+				+ "  --builder DIGITS|SYMBOLS           base Builder (DIGITS)\n" //
+				+ BuilderOptions.USAGE + "\n" //
+				+ "  --delimiter <string>               record delimiter (\\n)\n" //
+				+ "  --charset <charset>                (UTF-8)\n" //
+				+ "  --threads <n>                      (available processors)\n" //
+				+ "  --chunk <records>                  records per chunk (1048576)");
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.github.pfichtner.durationformatter;
+
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * {@link FormatterEvents} emitting Java Flight Recorder events. Only part of
+ * META-INF/versions/11 and loaded (reflectively) if <code>jdk.jfr</code> is
+ * present.
+ * 
+ * @author Peter Fichtner
+ */
+class JfrFormatterEvents extends FormatterEvents {
+
+	@Name("com.github.pfichtner.durationformatter.Build")
+	@Label("Formatter Build")
+	@Category("DurationFormatter")
+	@Description("Construction of a DurationFormatter")
+	@StackTrace(false)
+	static class BuildEvent extends Event {
+
+		@Label("Configuration")
+		String configuration;
+
+	}
+
+	@Name("com.github.pfichtner.durationformatter.Format")
+	@Label("Slow Format")
+	@Category("DurationFormatter")
+	@Description("Format call exceeding the threshold")
+	@Threshold("1 ms")
+	static class FormatEvent extends Event {
+
+		@Label("Value")
+		long value;
+
+		@Label("Time Unit")
+		String timeUnit;
+
+	}
+
+	@Name("com.github.pfichtner.durationformatter.FormatsCreation")
+	@Label("Formats Creation")
+	@Category("DurationFormatter")
+	@Description("Formats created because the pool of the current thread's stripe was empty (concurrent use)")
+	@StackTrace(false)
+	static class FormatsCreationEvent extends Event {
+	}
+
+	private static final EventType BUILD = EventType
+			.getEventType(BuildEvent.class);
+	private static final EventType FORMAT = EventType
+			.getEventType(FormatEvent.class);
+	private static final EventType FORMATS_CREATION = EventType
+			.getEventType(FormatsCreationEvent.class);
+
+	private static <T extends Event> T begin(T event) {
+		event.begin();
+		return event;
+	}
+
+	@Override
+	Object beginBuild() {
+		return BUILD.isEnabled() ? begin(new BuildEvent()) : null;
+	}
+
+	@Override
+	void endBuild(Object event, Object configuration) {
+		if (event != null) {
+			BuildEvent buildEvent = (BuildEvent) event;
+			buildEvent.end();
+			if (buildEvent.shouldCommit()) {
+				buildEvent.configuration = String.valueOf(configuration);
+				buildEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	Object beginFormat() {
+		return FORMAT.isEnabled() ? begin(new FormatEvent()) : null;
+	}
+
+	@Override
+	void endFormat(Object event, long value, TimeUnit timeUnit) {
+		if (event != null) {
+			FormatEvent formatEvent = (FormatEvent) event;
+			formatEvent.end();
+			if (formatEvent.shouldCommit()) {
+				formatEvent.value = value;
+				formatEvent.timeUnit = timeUnit.name();
+				formatEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	Object beginFormatsCreation() {
+		return FORMATS_CREATION.isEnabled() ? begin(new FormatsCreationEvent())
+				: null;
+	}
+
+	@Override
+	void endFormatsCreation(Object event) {
+		if (event != null) {
+			((Event) event).commit();
+		}
+	}
+
+}
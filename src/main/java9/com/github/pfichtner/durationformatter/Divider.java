@@ -0,0 +1,65 @@
+package com.github.pfichtner.durationformatter;
+
+import java.math.BigInteger;
+
+/**
+ * Divides non-negative longs by an invariant divisor using
+ * {@link Math#multiplyHigh(long, long)} with a precomputed reciprocal instead
+ * of a (much slower) long division (Granlund/Montgomery, "Division by
+ * Invariant Integers using Multiplication"). Replaces the baseline
+ * implementation on JDK 9+ (META-INF/versions/9).
+ * 
+ * @author Peter Fichtner
+ */
+final class Divider {
+
+	private final long divisor;
+
+	/**
+	 * the reciprocal m (2^63 &lt; m &lt; 2^64) as unsigned long, 0 if the
+	 * divisor is divided the plain way (powers of two, too large divisors)
+	 */
+	private final long multiplier;
+
+	private final int shift;
+
+	Divider(long divisor) {
+		this.divisor = divisor;
+		// l = ceil(log2(divisor)), divisor must be in (2^(l-1), 2^l)
+		int l = 64 - Long.numberOfLeadingZeros(divisor - 1);
+		if (divisor < 3 || Long.bitCount(divisor) == 1 || l > 62) {
+			this.multiplier = 0;
+			this.shift = 0;
+		} else {
+			// m = ceil(2^(63+l) / divisor), 2^63 < m < 2^64
+			BigInteger twoPow = BigInteger.ONE.shiftLeft(63 + l);
+			BigInteger[] qr = twoPow.divideAndRemainder(BigInteger
+					.valueOf(divisor));
+			BigInteger m = qr[1].signum() == 0 ? qr[0] : qr[0]
+					.add(BigInteger.ONE);
+			this.multiplier = m.longValue();
+			this.shift = l - 1;
+		}
+	}
+
+	long divisor() {
+		return this.divisor;
+	}
+
+	/**
+	 * Returns <code>dividend / divisor</code>.
+	 * 
+	 * @param dividend
+	 *            the dividend, must not be negative
+	 * @return the quotient
+	 */
+	long divide(long dividend) {
+		if (this.multiplier == 0) {
+			return dividend / this.divisor;
+		}
+		// multiplyHigh treats the multiplier as signed (m - 2^64), add the
+		// dividend back to get the high bits of dividend * m
+		return (Math.multiplyHigh(dividend, this.multiplier) + dividend) >>> this.shift;
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.github.pfichtner.durationformatter;
+
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.LEADING;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+
+/**
+ * Fails if formatting allocates more bytes per call than budgeted. The
+ * budgets of {@link DurationFormatter#format(long, TimeUnit)} are at most 10%
+ * above the greatest values measured (the String, its array and the
+ * StringBuilder, the JIT does not always eliminate the same temporaries). With reused TimeValues the
+ * optimized paths of {@link Engine#FAST} must not allocate at all, the
+ * java.text Formats of {@link Engine#REFERENCE} allocate exactly one
+ * FieldPosition delegate per unit (24 bytes) once the JIT reached its steady
+ * state, a boxed value would add 16 bytes per unit. If one of them fails check
+ * for new boxing, iterators or temporary Strings in the formatting path
+ * before raising it.
+ * 
+ * @author Peter Fichtner
+ */
+public class AllocationBudgetTest {
+
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int MEASURE_ROUNDS = 3;
+	private static final int CALLS = 50000;
+
+	private interface Call {
+		void call(long value);
+	}
+
+	private com.sun.management.ThreadMXBean threadMXBean;
+
+	@Before
+	public void setUp() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		this.threadMXBean = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(this.threadMXBean.isThreadAllocatedMemorySupported());
+		this.threadMXBean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	@Test
+	public void testFormatDigits() {
+		// measured 560/104
+		assertBudget(616, format(DurationFormatter.DIGITS));
+		assertBudget(114, format(Builder.DIGITS.engine(Engine.FAST).build()));
+	}
+
+	@Test
+	public void testFormatSymbols() {
+		// measured 592/112
+		assertBudget(650, format(DurationFormatter.SYMBOLS));
+		assertBudget(123, format(Builder.SYMBOLS.engine(Engine.FAST).build()));
+	}
+
+	@Test
+	public void testFormatToReusingTimeValues() {
+		// three units
+		assertBudget(3 * 24, formatTo(DurationFormatter.DIGITS));
+		// four units, the milliseconds would need boxing
+		assertBudget(4 * 24, formatTo(Builder.DIGITS
+				.minimum(MILLISECONDS).engine(Engine.REFERENCE).build()));
+		assertBudget(0, formatTo(Builder.DIGITS.engine(Engine.FAST).build()));
+		assertBudget(0, formatTo(Builder.SYMBOLS.engine(Engine.FAST).build()));
+		assertBudget(
+				0,
+				formatTo(Builder.SYMBOLS.maximum(DAYS).suppressZeros(LEADING)
+						.maximumAmountOfUnitsToShow(2).engine(Engine.FAST)
+						.build()));
+	}
+
+	private static Call format(final DurationFormatter formatter) {
+		return new Call() {
+			public void call(long value) {
+				formatter.format(value, MILLISECONDS);
+			}
+		};
+	}
+
+	private static Call formatTo(final DurationFormatter formatter) {
+		final TimeValues timeValues = new TimeValues();
+		final StringBuilder sb = new StringBuilder();
+		return new Call() {
+			public void call(long value) {
+				sb.setLength(0);
+				DurationFormatters.formatTo(formatter, sb, timeValues, value,
+						MILLISECONDS);
+			}
+		};
+	}
+
+	private void assertBudget(long budget, Call call) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			measure(call);
+		}
+		// steady state: the least of some rounds after the warm up, a round can
+		// suffer from a method not yet compiled (no escape analysis) while
+		// every round shows boxing
+		long bytesPerCall = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURE_ROUNDS; i++) {
+			bytesPerCall = Math.min(bytesPerCall, measure(call));
+		}
+		assertTrue("allocated " + bytesPerCall + " bytes per call, budget is "
+				+ budget, bytesPerCall <= budget);
+	}
+
+	private long measure(Call call) {
+		long threadId = Thread.currentThread().getId();
+		long before = this.threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < CALLS; i++) {
+			call.call(i * 7919L);
+		}
+		return (this.threadMXBean.getThreadAllocatedBytes(threadId) - before)
+				/ CALLS;
+	}
+
+}
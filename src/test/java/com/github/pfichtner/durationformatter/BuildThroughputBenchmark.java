@@ -0,0 +1,111 @@
+package com.github.pfichtner.durationformatter;
+
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.LEADING;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Locale;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.FormatterSpec;
+
+/**
+ * Measures how many formatters per second can be built (and used once) from
+ * per request options, using a {@link Builder} chain and a
+ * {@link FormatterSpec}. Not a unit test, run the main method manually:
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.pfichtner.durationformatter.BuildThroughputBenchmark</code>
+ * 
+ * @author Peter Fichtner
+ */
+public class BuildThroughputBenchmark {
+
+	private static final long DURATION_MILLIS = 2000;
+
+	private static final String[] SEPARATORS = new String[] { " ", ", ",
+			" / " };
+
+	private abstract static class Task {
+
+		private final String name;
+
+		Task(String name) {
+			this.name = name;
+		}
+
+		abstract DurationFormatter build(int preferences);
+
+	}
+
+	private static final Task BUILDER = new Task("Builder chain") {
+		@Override
+		DurationFormatter build(int preferences) {
+			return Builder.SYMBOLS.maximum(DAYS).minimum(SECONDS)
+					.separator(SEPARATORS[preferences % SEPARATORS.length])
+					.symbol(HOURS, "hrs").symbol(MINUTES, "mins")
+					.suppressZeros(LEADING)
+					.maximumAmountOfUnitsToShow(1 + preferences % 3).build();
+		}
+	};
+
+	private static final Task SPEC = new Task("FormatterSpec") {
+		@Override
+		DurationFormatter build(int preferences) {
+			return new FormatterSpec(Builder.SYMBOLS).maximum(DAYS)
+					.minimum(SECONDS)
+					.separator(SEPARATORS[preferences % SEPARATORS.length])
+					.symbol(HOURS, "hrs").symbol(MINUTES, "mins")
+					.suppressZeros(LEADING)
+					.maximumAmountOfUnitsToShow(1 + preferences % 3).build();
+		}
+	};
+
+	private static final Locale[] LOCALES = new Locale[] { Locale.US,
+			Locale.GERMANY };
+
+	/**
+	 * like {@link #SPEC} but with a default locale alternating per request
+	 */
+	private static final Task SPEC_LOCALES = new Task(
+			"FormatterSpec, alternating locales") {
+		@Override
+		DurationFormatter build(int preferences) {
+			Locale.setDefault(Locale.Category.FORMAT, LOCALES[preferences
+					% LOCALES.length]);
+			return SPEC.build(preferences);
+		}
+	};
+
+	public static void main(String[] args) {
+		// warm up
+		run(BUILDER);
+		run(SPEC);
+		for (Task task : new Task[] { BUILDER, SPEC, SPEC_LOCALES }) {
+			System.out.printf(Locale.ROOT, "%-35s %,12d formatters/s%n",
+					task.name, run(task));
+		}
+	}
+
+	private static long run(Task task) {
+		long count = 0;
+		long length = 0;
+		long start = System.nanoTime();
+		long end = start + DURATION_MILLIS * 1000000L;
+		long now;
+		do {
+			for (int i = 0; i < 100; i++) {
+				length += task.build((int) count).format(count * 997, SECONDS)
+						.length();
+				count++;
+			}
+			now = System.nanoTime();
+		} while (now < end);
+		if (length == 0) {
+			throw new IllegalStateException();
+		}
+		return count * SECONDS.toNanos(1) / (now - start);
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+public class ColumnFormatterTest {
+
+	private final ColumnFormatter columnFormatter = new ColumnFormatter(
+			Builder.SYMBOLS.minimum(MILLISECONDS).maximum(HOURS)
+					.suppressZeros(SuppressZeros.LEADING)
+					.maximumAmountOfUnitsToShow(2));
+
+	@Test
+	public void testAllMillis() {
+		assertArrayEquals(new String[] { "5ms", "800ms", "0ms" },
+				this.columnFormatter.format(new long[] { 5, 800, 0 },
+						MILLISECONDS));
+	}
+
+	@Test
+	public void testAllMinutesAndSeconds() {
+		assertArrayEquals(new String[] { "0min 0s", "1min 30s", "0min 1s" },
+				this.columnFormatter.format(new long[] { 5, 90000, 800 },
+						MILLISECONDS));
+	}
+
+	@Test
+	public void testMaximumOfBuilderIsNotExceeded() {
+		assertArrayEquals(new String[] { "48h 0min", "0h 0min" },
+				this.columnFormatter.format(new long[] { 2, 0 }, DAYS));
+	}
+
+	@Test
+	public void testWithoutLimitMinimumIsKept() {
+		ColumnFormatter columnFormatter = new ColumnFormatter(
+				Builder.DIGITS.suppressZeros(SuppressZeros.LEADING));
+		assertArrayEquals(new String[] { "00:01", "01:30" },
+				columnFormatter.format(new long[] { 1, 90 }, SECONDS));
+		assertArrayEquals(new String[] { "01", "45" },
+				columnFormatter.format(new long[] { 1, 45 }, SECONDS));
+	}
+
+	@Test
+	public void testWeeks() {
+		ColumnFormatter columnFormatter = new ColumnFormatter(Builder.SYMBOLS
+				.minimum(HOURS).weeks(true).maximumAmountOfUnitsToShow(2));
+		assertArrayEquals(new String[] { "2w 0d", "0w 3d" },
+				columnFormatter.format(new long[] { 14, 3 }, DAYS));
+		assertArrayEquals(new String[] { "6d 0h", "0d 3h" },
+				columnFormatter.format(new long[] { 144, 3 }, HOURS));
+	}
+
+	@Test
+	public void testFormattersAreReused() {
+		DurationFormatter formatter = this.columnFormatter.formatterFor(
+				new long[] { 1, 2 }, SECONDS);
+		assertSame(formatter,
+				this.columnFormatter.formatterFor(new long[] { 3 }, SECONDS));
+		assertEquals("3s 0ms", formatter.format(3, SECONDS));
+	}
+
+	@Test
+	public void testExtremeValues() {
+		long[] values = new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+		String[] outputs = this.columnFormatter.format(values, MILLISECONDS);
+		// MIN_VALUE is sized like MAX_VALUE: hours and minutes for both
+		DurationFormatter formatter = Builder.SYMBOLS.minimum(MINUTES)
+				.maximum(HOURS)
+				.suppressZeros(EnumSet.noneOf(SuppressZeros.class)).build();
+		assertArrayEquals(new String[] {
+				formatter.format(Long.MIN_VALUE, MILLISECONDS),
+				formatter.format(Long.MAX_VALUE, MILLISECONDS) }, outputs);
+		assertArrayEquals(new String[] { "0h 0min", "2562047788015h 13min" },
+				outputs);
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.github.pfichtner.durationformatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DividerTest {
+
+	private static final long[] DIVISORS = new long[] { 2, 3, 7, 10, 24, 60,
+			1000, 1000000, 86400000000000L, 1L << 40, (1L << 61) + 1,
+			Long.MAX_VALUE };
+
+	@Test
+	public void testBaseline() throws Exception {
+		for (long divisor : DIVISORS) {
+			Divider divider = new Divider(divisor);
+			for (long dividend : dividends(divisor)) {
+				assertEquals(dividend / divisor, divider.divide(dividend));
+			}
+		}
+	}
+
+	@Test
+	public void testVersioned() throws Exception {
+		URL classes = Divider.class.getProtectionDomain().getCodeSource()
+				.getLocation();
+		File versioned = new File(new File(classes.toURI()),
+				"META-INF/versions/9");
+		assumeTrue(versioned.isDirectory());
+		// the versions directory is only used when loading from a jar
+		ClassLoader classLoader = new URLClassLoader(new URL[] {
+				versioned.toURI().toURL(), classes }, null);
+		Class<?> clazz = classLoader.loadClass(Divider.class.getName());
+		Constructor<?> constructor = clazz.getDeclaredConstructor(long.class);
+		constructor.setAccessible(true);
+		Method divide = clazz.getDeclaredMethod("divide", long.class);
+		divide.setAccessible(true);
+		for (long divisor : DIVISORS) {
+			Object divider = constructor.newInstance(divisor);
+			for (long dividend : dividends(divisor)) {
+				assertEquals(divisor + "/" + dividend, dividend / divisor,
+						divide.invoke(divider, dividend));
+			}
+		}
+	}
+
+	private static long[] dividends(long divisor) {
+		Random random = new Random(divisor);
+		long[] dividends = new long[10000];
+		int i = 0;
+		for (long base : new long[] { 0, divisor, Long.MAX_VALUE / divisor
+				* divisor }) {
+			for (long delta = -3; delta <= 3; delta++) {
+				long dividend = base + delta;
+				dividends[i++] = dividend < 0 ? 0 : dividend;
+			}
+		}
+		dividends[i++] = Long.MAX_VALUE;
+		while (i < dividends.length) {
+			long next = random.nextLong() & Long.MAX_VALUE;
+			dividends[i++] = next >>> random.nextInt(63);
+		}
+		return dividends;
+	}
+
+}
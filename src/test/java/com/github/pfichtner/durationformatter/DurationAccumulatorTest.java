@@ -0,0 +1,124 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+
+public class DurationAccumulatorTest {
+
+	@Test
+	public void testUnitIsNormalized() {
+		DurationAccumulator<String> accumulator = new DurationAccumulator<String>(
+				Builder.DIGITS.minimum(MILLISECONDS));
+		assertEquals(MILLISECONDS, accumulator.getTimeUnit());
+		accumulator.add("a", 1, SECONDS);
+		accumulator.add("a", 2500000, NANOSECONDS);
+		assertEquals(1002, accumulator.sum("a"));
+		assertEquals(1002500000, accumulator.sumNanos("a"));
+		assertEquals(0, accumulator.sum("b"));
+	}
+
+	@Test
+	public void testSamplesBelowMinimumAreNotTruncated() throws IOException {
+		DurationAccumulator<String> accumulator = new DurationAccumulator<String>(
+				Builder.DIGITS);
+		for (int i = 0; i < 3; i++) {
+			accumulator.add("a", 700, MILLISECONDS);
+		}
+		assertEquals(2, accumulator.sum("a"));
+		assertEquals("a=00:00:02\n",
+				accumulator.snapshotTo(new StringBuilder(), "=", "\n")
+						.toString());
+	}
+
+	@Test
+	public void testSaturates() {
+		DurationAccumulator<String> accumulator = new DurationAccumulator<String>(
+				Builder.DIGITS);
+		accumulator.add("a", Long.MAX_VALUE, NANOSECONDS);
+		accumulator.add("a", 1, DAYS);
+		assertEquals(Long.MAX_VALUE, accumulator.sumNanos("a"));
+		accumulator.add("b", -1, NANOSECONDS);
+		accumulator.add("b", Long.MIN_VALUE, NANOSECONDS);
+		assertEquals(Long.MIN_VALUE, accumulator.sumNanos("b"));
+	}
+
+	@Test
+	public void testTotalsBeyondNanosecondRange() throws IOException {
+		DurationAccumulator<String> accumulator = new DurationAccumulator<String>(
+				Builder.SYMBOLS.maximum(DAYS));
+		// 200 years each, the total does not fit into a nanosecond long
+		for (int i = 0; i < 3; i++) {
+			accumulator.add("a", 73000, DAYS);
+		}
+		accumulator.add("a", 1500, MILLISECONDS);
+		assertEquals(DAYS.toSeconds(219000) + 1, accumulator.sum("a"));
+		assertEquals(Long.MAX_VALUE, accumulator.sumNanos("a"));
+		assertEquals("a=219000d 0h 0min 2s\n",
+				accumulator.snapshotTo(new StringBuilder(), "=", "\n")
+						.toString());
+	}
+
+	@Test
+	public void testConcurrentAdds() throws InterruptedException {
+		final DurationAccumulator<Integer> accumulator = new DurationAccumulator<Integer>(
+				Builder.DIGITS.minimum(MILLISECONDS));
+		final int threads = 8;
+		final int adds = 100000;
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < adds; i++) {
+						accumulator.add(Integer.valueOf(i % 3), 1, MILLISECONDS);
+					}
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long total = 0;
+		for (int key = 0; key < 3; key++) {
+			total += accumulator.sum(Integer.valueOf(key));
+		}
+		assertEquals((long) threads * adds, total);
+	}
+
+	@Test
+	public void testSnapshot() throws IOException {
+		DurationAccumulator<String> accumulator = new DurationAccumulator<String>(
+				Builder.SYMBOLS);
+		accumulator.add("/a", 3723, SECONDS);
+		accumulator.add("/b", 59, SECONDS);
+		accumulator.add("/b", 2, SECONDS);
+		List<String> lines = Arrays.asList(accumulator
+				.snapshotTo(new StringBuilder(), " = ", "\n").toString()
+				.split("\n"));
+		assertEquals(2, lines.size());
+		assertTrue(lines.contains("/a = 1h 2min 3s"));
+		assertTrue(lines.contains("/b = 0h 1min 1s"));
+	}
+
+}
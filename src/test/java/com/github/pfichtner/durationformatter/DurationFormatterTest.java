@@ -13,12 +13,16 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Ignore;
 import org.junit.Test;
 
 import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+import com.github.pfichtner.durationformatter.DurationFormatter.MismatchListener;
 
 public class DurationFormatterTest {
 
@@ -51,6 +55,49 @@ public class DurationFormatterTest {
 
 	}
 
+	@Test
+	public void testUseOnly() {
+		DurationFormatter df = Builder.SYMBOLS.useOnly(MILLISECONDS).build();
+		assertEquals("1500ms", df.format(1500, MILLISECONDS));
+		assertEquals("3600000ms", df.format(1, HOURS));
+		assertEquals("2ms", df.format(1500, MICROSECONDS));
+	}
+
+	@Test
+	public void testOverflowSaturatesInBothDirections() {
+		assertEquals("9223372036854775807:00:00",
+				DurationFormatter.DIGITS.format(Long.MAX_VALUE / 2, DAYS));
+		assertEquals("-9223372036854775808:00:00",
+				DurationFormatter.DIGITS.format(-Long.MAX_VALUE / 2, DAYS));
+		assertEquals("-9223372036854775808h 0min 0s",
+				DurationFormatter.SYMBOLS.format(-Long.MAX_VALUE / 2, DAYS));
+		for (Engine engine : Engine.values()) {
+			assertEquals("-9223372036854775808:00:00", Builder.DIGITS
+					.engine(engine).build().format(-Long.MAX_VALUE / 2, DAYS));
+		}
+	}
+
+	@Test
+	public void testWeeks() {
+		for (Engine engine : Engine.values()) {
+			Builder symbols = Builder.SYMBOLS.weeks(true).engine(engine);
+			assertEquals("156w 3d 0h 0min 0s",
+					symbols.build().format(1095, DAYS));
+			assertEquals("3d 0h 0min 0s", symbols.suppressZeros(LEADING)
+					.build().format(3, DAYS));
+			assertEquals("2w", symbols.suppressZeros(TRAILING).build()
+					.format(14, DAYS));
+			// 1w 6d 13h rounded to days
+			assertEquals("2w 0d", symbols.maximumAmountOfUnitsToShow(2)
+					.build().format(DAYS.toHours(13) + 13, HOURS));
+			assertEquals("14d 0h 0min 0s", symbols.maximum(DAYS).build()
+					.format(14, DAYS));
+			assertEquals("01:01:01:00:00", Builder.DIGITS.weeks(true)
+					.engine(engine).build()
+					.format(DAYS.toSeconds(8) + 3600, SECONDS));
+		}
+	}
+
 	@Test
 	public void testNanos() {
 		Builder builder = Builder.DIGITS.minimum(NANOSECONDS).maximum(
@@ -376,4 +423,130 @@ public class DurationFormatterTest {
 				df.format(val, SECONDS));
 	}
 
+	@Test
+	public void testBatchEqualsSingle() {
+		long[] values = new long[] { 0, 1, 499, 500, 999, 1499,
+				get(59, MINUTES).and(30, SECONDS).as(NANOSECONDS),
+				get(3, DAYS).and(12, HOURS).and(31, MINUTES).as(NANOSECONDS),
+				DAYS.toNanos(33) + 1, -1, -DAYS.toNanos(1), Long.MAX_VALUE };
+		Builder[] builders = new Builder[] { Builder.DIGITS, Builder.SYMBOLS,
+				Builder.DIGITS.minimum(NANOSECONDS).maximum(MILLISECONDS),
+				Builder.SYMBOLS.maximum(DAYS).minimum(SECONDS)
+						.suppressZeros(LEADING).maximumAmountOfUnitsToShow(2),
+				Builder.SYMBOLS.minimum(NANOSECONDS).maximum(DAYS)
+						.suppressZeros(LEADING, MIDDLE, TRAILING) };
+		for (Builder builder : builders) {
+			DurationFormatter df = builder.build();
+			for (TimeUnit timeUnit : TimeUnit.values()) {
+				String[] batch = DurationFormatters.format(df, values,
+						timeUnit);
+				for (int i = 0; i < values.length; i++) {
+					assertEquals(df.format(values[i], timeUnit), batch[i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFormatToReusingTimeValues() {
+		DurationFormatter df = Builder.SYMBOLS.maximum(DAYS)
+				.suppressZeros(LEADING).maximumAmountOfUnitsToShow(2).build();
+		TimeValues timeValues = new TimeValues();
+		StringBuilder sb = new StringBuilder();
+		for (long value : new long[] { 0, 499, 500, DAYS.toMillis(3) + 1,
+				get(3, DAYS).and(12, HOURS).and(31, MINUTES).as(MILLISECONDS),
+				MINUTES.toMillis(31) }) {
+			sb.setLength(0);
+			assertEquals(df.formatMillis(value),
+					DurationFormatters.formatTo(df, sb, timeValues, value,
+							MILLISECONDS).toString());
+		}
+	}
+
+	@Test
+	public void testFormatDouble() {
+		DurationFormatter df = DurationFormatter.DIGITS;
+		assertEquals("00:00:02", DurationFormatters.format(df, 1.5, SECONDS));
+		assertEquals("00:00:01",
+				DurationFormatters.format(df, 1.4999, SECONDS));
+		assertEquals("01:02:03", DurationFormatters.format(df, 62.05, MINUTES));
+		assertEquals(df.format(123456789L, MILLISECONDS),
+				DurationFormatters.format(df, 123456.789, SECONDS));
+		assertEquals(df.format(-1500L, MILLISECONDS),
+				DurationFormatters.format(df, -1.5, SECONDS));
+		StringBuilder sb = new StringBuilder("eta ");
+		assertEquals("eta 00:01:00",
+				DurationFormatters.formatTo(df, sb, 0.999999, MINUTES)
+						.toString());
+	}
+
+	@Test
+	public void testFormatDoubleKeepsFraction() {
+		DurationFormatter df = Builder.SYMBOLS.minimum(MILLISECONDS)
+				.round(false).build();
+		// 0.3 is 0.29999999999999998889776975 as double
+		assertEquals("0h 0min 0s 300ms",
+				DurationFormatters.format(df, 0.3, SECONDS));
+		assertEquals("0h 0min 0s 1ms",
+				DurationFormatters.format(df, 1.999, MILLISECONDS));
+		DurationFormatter nanos = Builder.DIGITS.minimum(NANOSECONDS)
+				.maximum(MILLISECONDS).build();
+		assertEquals("000:000:002",
+				DurationFormatters.format(nanos, 1.5, NANOSECONDS));
+		assertEquals("001:500:000",
+				DurationFormatters.format(nanos, 1.5, MILLISECONDS));
+		DurationFormatter truncating = Builder.DIGITS.minimum(NANOSECONDS)
+				.maximum(MILLISECONDS).round(false).build();
+		assertEquals("000:000:001",
+				DurationFormatters.format(truncating, 1.5, NANOSECONDS));
+	}
+
+	@Test
+	public void testFormatDoubleOutOfLongRange() {
+		DurationFormatter df = Builder.SYMBOLS.maximum(DAYS).build();
+		// more nanoseconds than fit into a long
+		assertEquals(df.format(200000L, DAYS), DurationFormatters.format(df,
+				DAYS.toMicros(200000) * 1e3, NANOSECONDS));
+		assertEquals(df.format(200000L, DAYS),
+				DurationFormatters.format(df, 200000.0, DAYS));
+		assertEquals(df.format(Long.MAX_VALUE, DAYS),
+				DurationFormatters.format(df, 1e300, DAYS));
+	}
+
+	@Test
+	public void testFormatDoubleNonFinite() {
+		DurationFormatter df = DurationFormatter.DIGITS;
+		assertEquals("NaN", DurationFormatters.format(df, Double.NaN, SECONDS));
+		assertEquals("\u221e", DurationFormatters.format(df,
+				Double.POSITIVE_INFINITY, SECONDS));
+		assertEquals("-\u221e", DurationFormatters.format(df,
+				Double.NEGATIVE_INFINITY, SECONDS));
+		DurationFormatter custom = Builder.DIGITS.nonFinite("n/a", "never",
+				"-").build();
+		assertEquals("n/a",
+				DurationFormatters.format(custom, Double.NaN, SECONDS));
+		assertEquals("never", DurationFormatters.formatTo(custom,
+				new StringBuilder(), Double.POSITIVE_INFINITY, SECONDS)
+				.toString());
+		assertEquals("-", DurationFormatters.format(custom,
+				Double.NEGATIVE_INFINITY, SECONDS));
+	}
+
+	@Test
+	public void testFormatDoubleVerified() {
+		final List<String> mismatches = new ArrayList<String>();
+		DurationFormatter df = Builder.SYMBOLS.engine(Engine.FAST)
+				.verify(1, new MismatchListener() {
+					public void mismatch(long value, TimeUnit timeUnit,
+							String expected, String actual) {
+						mismatches.add(value + " " + timeUnit);
+					}
+				}).build();
+		assertEquals(
+				DurationFormatters.format(Builder.SYMBOLS.build(), 2.5, HOURS),
+				DurationFormatters.format(df, 2.5, HOURS));
+		assertEquals("NaN", DurationFormatters.format(df, Double.NaN, HOURS));
+		assertEquals(0, mismatches.size());
+	}
+
 }
@@ -0,0 +1,66 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DurationFormattersTest {
+
+	/**
+	 * Implementation outside of the library only implementing the methods of
+	 * DurationFormatter
+	 */
+	private final DurationFormatter external = new DurationFormatter() {
+
+		public String formatMillis(long value) {
+			return format(value, MILLISECONDS);
+		}
+
+		public String format(long value, TimeUnit timeUnit) {
+			return timeUnit.toMillis(value) + "ms";
+		}
+
+	};
+
+	@Test
+	public void testFallbacks() {
+		assertArrayEquals(new String[] { "1000ms", "2000ms" },
+				DurationFormatters.format(this.external, new long[] { 1, 2 },
+						SECONDS));
+		assertEquals("t=1000ms", DurationFormatters.formatTo(this.external,
+				new StringBuilder("t="), 1, SECONDS).toString());
+		assertEquals("t=1000ms", DurationFormatters.formatTo(this.external,
+				new StringBuilder("t="), new TimeValues(), 1, SECONDS)
+				.toString());
+		assertEquals("1500ms",
+				DurationFormatters.format(this.external, 1.5, SECONDS));
+		// the texts configured by default
+		DurationFormatter defaults = DurationFormatter.Builder.DIGITS.build();
+		for (double value : new double[] { Double.NaN,
+				Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }) {
+			assertEquals(DurationFormatters.format(defaults, value, SECONDS),
+					DurationFormatters.format(this.external, value, SECONDS));
+		}
+	}
+
+	@Test
+	public void testEqualsFormat() {
+		DurationFormatter formatter = DurationFormatter.SYMBOLS;
+		long[] values = new long[] { 0, 1, 3723, -61 };
+		String[] outputs = DurationFormatters.format(formatter, values,
+				SECONDS);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(formatter.format(values[i], SECONDS), outputs[i]);
+			assertEquals(formatter.format(values[i], SECONDS),
+					DurationFormatters.formatTo(formatter,
+							new StringBuilder(), values[i], SECONDS)
+							.toString());
+		}
+	}
+
+}
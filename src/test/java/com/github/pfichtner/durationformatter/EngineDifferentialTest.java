@@ -0,0 +1,194 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+import com.github.pfichtner.durationformatter.DurationFormatter.MismatchListener;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+/**
+ * Compares the output of all engines with the output of
+ * {@link Engine#REFERENCE} for all combinations of Builder options.
+ * 
+ * @author Peter Fichtner
+ */
+public class EngineDifferentialTest {
+
+	private static final int[] LIMITS = new int[] { Integer.MAX_VALUE, 1,
+			2 };
+
+	private static List<Builder> bases() {
+		List<Builder> bases = new ArrayList<Builder>();
+		bases.add(Builder.DIGITS);
+		bases.add(Builder.SYMBOLS);
+		bases.add(Builder.SYMBOLS.valueSymbolSeparator(" ").separator(", "));
+		bases.add(Builder.SYMBOLS.symbolChoice(DAYS, "day", "days")
+				.symbolChoice(SECONDS, "second", "seconds")
+				.valueSymbolSeparator(" "));
+		// pattern characters within symbols
+		bases.add(Builder.SYMBOLS.symbol(MILLISECONDS, "%").symbol(SECONDS,
+				"'s'"));
+		return bases;
+	}
+
+	private static long[] values(TimeUnit timeUnit) {
+		Random random = new Random(timeUnit.ordinal());
+		long[] values = new long[32];
+		int i = 0;
+		values[i++] = 0;
+		values[i++] = 1;
+		values[i++] = -1;
+		values[i++] = Long.MAX_VALUE;
+		values[i++] = Long.MIN_VALUE;
+		values[i++] = timeUnit.convert(1, DAYS) - 1;
+		values[i++] = timeUnit.convert(1, DAYS) + 1;
+		while (i < 16) {
+			// small values (covered by precomputed outputs)
+			values[i++] = random.nextInt(Math.max(2,
+					(int) Math.min(Integer.MAX_VALUE, timeUnit.convert(2, DAYS)))) >>> random
+					.nextInt(31);
+		}
+		while (i < values.length) {
+			// random magnitudes, not only huge values
+			values[i++] = random.nextLong() >>> random.nextInt(64);
+		}
+		return values;
+	}
+
+	@Test
+	public void testAllEnginesEqualReference() {
+		TimeUnit[] timeUnits = TimeUnit.values();
+		int formatters = 0;
+		for (Builder base : bases()) {
+			for (int min = 0; min < timeUnits.length; min++) {
+				for (int max = min; max < timeUnits.length; max++) {
+					for (EnumSet<SuppressZeros> suppressZeros : suppressZeros()) {
+						for (int limit : LIMITS) {
+							for (boolean round : new boolean[] { true, false }) {
+								Builder builder = base
+										.minimum(timeUnits[min])
+										.maximum(timeUnits[max])
+										.suppressZeros(suppressZeros)
+										.maximumAmountOfUnitsToShow(limit)
+										.round(round);
+								assertSameOutput(builder);
+								formatters++;
+							}
+						}
+					}
+				}
+			}
+		}
+		assertTrue(formatters > 0);
+	}
+
+	@Test
+	public void testWeeksEqualReference() {
+		for (Builder base : bases()) {
+			for (TimeUnit minimum : TimeUnit.values()) {
+				for (EnumSet<SuppressZeros> suppressZeros : suppressZeros()) {
+					for (int limit : LIMITS) {
+						assertSameOutput(base.minimum(minimum).weeks(true)
+								.suppressZeros(suppressZeros)
+								.maximumAmountOfUnitsToShow(limit));
+					}
+				}
+			}
+		}
+	}
+
+	private static void assertSameOutput(Builder builder) {
+		DurationFormatter reference = builder.engine(Engine.REFERENCE).build();
+		for (Engine engine : Engine.values()) {
+			DurationFormatter formatter = builder.engine(engine).build();
+			for (TimeUnit timeUnit : new TimeUnit[] { NANOSECONDS,
+					MILLISECONDS, DAYS }) {
+				long[] values = values(timeUnit);
+				String[] batch = DurationFormatters.format(formatter,
+						values, timeUnit);
+				for (int i = 0; i < values.length; i++) {
+					String expected = reference.format(values[i], timeUnit);
+					String message = engine + " " + values[i] + " " + timeUnit;
+					assertEquals(message, expected,
+							formatter.format(values[i], timeUnit));
+					assertEquals(message, expected, batch[i]);
+				}
+			}
+		}
+	}
+
+	private static List<EnumSet<SuppressZeros>> suppressZeros() {
+		SuppressZeros[] values = SuppressZeros.values();
+		List<EnumSet<SuppressZeros>> result = new ArrayList<EnumSet<SuppressZeros>>();
+		for (int bits = 0; bits < 1 << values.length; bits++) {
+			EnumSet<SuppressZeros> set = EnumSet.noneOf(SuppressZeros.class);
+			for (int i = 0; i < values.length; i++) {
+				if ((bits & 1 << i) != 0) {
+					set.add(values[i]);
+				}
+			}
+			result.add(set);
+		}
+		return result;
+	}
+
+	@Test
+	public void testVerificationReportsMismatches() {
+		final List<String> mismatches = new ArrayList<String>();
+		MismatchListener listener = new MismatchListener() {
+			public void mismatch(long value, TimeUnit timeUnit,
+					String expected, String actual) {
+				mismatches.add(value + " " + timeUnit + " " + expected + "<>"
+						+ actual);
+			}
+		};
+		DurationFormatter df = Builder.SYMBOLS.engine(Engine.FAST)
+				.verify(1, listener).build();
+		assertEquals(DurationFormatter.SYMBOLS.format(3723, SECONDS),
+				df.format(3723, SECONDS));
+		assertEquals(0, mismatches.size());
+
+		// a reference that differs from the FAST engine for odd values
+		final DurationFormatter reference = DurationFormatter.SYMBOLS;
+		DurationFormatter diverging = new DurationFormatter() {
+
+			public String formatMillis(long value) {
+				return format(value, MILLISECONDS);
+			}
+
+			public String format(long value, TimeUnit timeUnit) {
+				String result = reference.format(value, timeUnit);
+				return value % 2 == 0 ? result : "~" + result;
+			}
+
+		};
+		df = Builder.SYMBOLS.engine(Engine.FAST).verify(1, listener)
+				.verifyAgainst(diverging).build();
+		assertEquals("1h 2min 2s", df.format(3722, SECONDS));
+		assertEquals(0, mismatches.size());
+		// the reference output is returned for verified values
+		assertEquals("~1h 2min 3s", df.format(3723, SECONDS));
+		assertEquals("~1h 2min 3s",
+				DurationFormatters.formatTo(df, new StringBuilder(), 3723,
+						SECONDS).toString());
+		assertEquals(
+				Arrays.asList("3723 SECONDS ~1h 2min 3s<>1h 2min 3s",
+						"3723 SECONDS ~1h 2min 3s<>1h 2min 3s"), mismatches);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+public class EtaTrackerTest {
+
+	private final DurationFormatter formatter = Builder.SYMBOLS.maximum(DAYS)
+			.minimum(SECONDS).suppressZeros(SuppressZeros.LEADING)
+			.maximumAmountOfUnitsToShow(2).build();
+
+	@Test
+	public void testUnknownUntilProgress() {
+		EtaTracker tracker = new EtaTracker(this.formatter);
+		assertEquals("?", tracker.formatRemaining());
+		tracker.update(0, 1000, 0);
+		assertEquals("?", tracker.formatRemaining());
+		tracker.update(0, 1000, SECONDS.toNanos(1));
+		assertEquals("-", tracker.unknown("-").formatRemaining());
+	}
+
+	@Test
+	public void testConstantRate() {
+		EtaTracker tracker = new EtaTracker(this.formatter);
+		long total = 100L * 1000 * 1000;
+		// 1000 bytes every ms: 100 seconds in total
+		for (long ms = 0; ms <= 40000; ms++) {
+			tracker.update(ms * 1000, total, MILLISECONDS.toNanos(ms));
+		}
+		assertEquals(1000000, tracker.rate(SECONDS), 1);
+		assertEquals("1min 0s", tracker.formatRemaining());
+	}
+
+	@Test
+	public void testFollowsRateChanges() {
+		EtaTracker tracker = new EtaTracker(this.formatter, 1, SECONDS);
+		long total = 1000L * 1000 * 1000;
+		long done = 0;
+		long ms = 0;
+		for (; ms < 10000; ms++) {
+			tracker.update(done += 1000, total, MILLISECONDS.toNanos(ms));
+		}
+		// rate drops to a tenth
+		for (; ms < 20000; ms++) {
+			tracker.update(done += 100, total, MILLISECONDS.toNanos(ms));
+		}
+		double rate = tracker.rate(SECONDS);
+		assertTrue(String.valueOf(rate), rate > 99000 && rate < 101000);
+	}
+
+	@Test
+	public void testDone() {
+		EtaTracker tracker = new EtaTracker(this.formatter);
+		tracker.update(0, 1000, 0);
+		tracker.update(1000, 1000, SECONDS.toNanos(1));
+		assertEquals(0, tracker.remainingNanos());
+		assertEquals("0s", tracker.formatRemaining());
+	}
+
+}
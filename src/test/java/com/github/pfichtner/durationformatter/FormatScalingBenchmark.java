@@ -0,0 +1,87 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of one shared formatter with an increasing amount
+ * of threads (platform threads and, if the running JVM supports them, virtual
+ * threads). Not a unit test, run the main method manually:
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.pfichtner.durationformatter.FormatScalingBenchmark</code>
+ * 
+ * @author Peter Fichtner
+ */
+public class FormatScalingBenchmark {
+
+	private static final long DURATION_MILLIS = 2000;
+
+	public static void main(String[] args) throws Exception {
+		DurationFormatter formatter = DurationFormatter.SYMBOLS;
+		int cores = Runtime.getRuntime().availableProcessors();
+		// warm up
+		run(formatter, Executors.newFixedThreadPool(cores), cores);
+		for (int threads = 1; threads <= cores * 2; threads <<= 1) {
+			System.out.printf("platform %3d threads: %,15d ops/s%n", threads,
+					run(formatter, Executors.newFixedThreadPool(threads),
+							threads));
+		}
+		ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+		if (virtual == null) {
+			System.out.println("virtual threads not supported by this JVM");
+		} else {
+			virtual.shutdown();
+			for (int threads = 1; threads <= cores * 8; threads <<= 1) {
+				System.out.printf("virtual  %3d threads: %,15d ops/s%n",
+						threads,
+						run(formatter, newVirtualThreadPerTaskExecutor(),
+								threads));
+			}
+		}
+	}
+
+	private static long run(final DurationFormatter formatter,
+			ExecutorService executor, int threads) throws InterruptedException {
+		final AtomicBoolean stop = new AtomicBoolean();
+		final AtomicLong ops = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(threads);
+		for (int i = 0; i < threads; i++) {
+			executor.submit(new Callable<Void>() {
+				public Void call() {
+					long count = 0;
+					long value = 0;
+					while (!stop.get()) {
+						formatter.format(value++, SECONDS);
+						count++;
+					}
+					ops.addAndGet(count);
+					done.countDown();
+					return null;
+				}
+			});
+		}
+		long start = System.nanoTime();
+		Thread.sleep(DURATION_MILLIS);
+		stop.set(true);
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		executor.shutdown();
+		return ops.get() * SECONDS.toNanos(1) / elapsed;
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+}
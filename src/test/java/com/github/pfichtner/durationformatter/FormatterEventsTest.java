@@ -0,0 +1,72 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+public class FormatterEventsTest {
+
+	private static final String BUILD = "com.github.pfichtner.durationformatter.Build";
+	private static final String FORMAT = "com.github.pfichtner.durationformatter.Format";
+
+	@Test
+	public void testJfrEventsAreLoaded() {
+		assertEquals("JfrFormatterEvents", FormatterEvents.INSTANCE
+				.getClass().getSimpleName());
+	}
+
+	@Test
+	public void testEventsAreRecorded() throws IOException {
+		Recording recording = new Recording();
+		try {
+			recording.enable(BUILD);
+			recording.enable(FORMAT).withThreshold(Duration.ZERO);
+			recording.start();
+			DurationFormatter.Builder.DIGITS.build().format(42, SECONDS);
+			recording.stop();
+
+			List<RecordedEvent> builds = new ArrayList<RecordedEvent>();
+			List<RecordedEvent> formats = new ArrayList<RecordedEvent>();
+			for (RecordedEvent event : read(recording)) {
+				String name = event.getEventType().getName();
+				if (BUILD.equals(name)) {
+					builds.add(event);
+				} else if (FORMAT.equals(name)) {
+					formats.add(event);
+				}
+			}
+			assertEquals(1, builds.size());
+			assertTrue(builds.get(0).getString("configuration")
+					.contains("minimum=SECONDS"));
+			assertEquals(1, formats.size());
+			assertEquals(42, formats.get(0).getLong("value"));
+			assertEquals("SECONDS", formats.get(0).getString("timeUnit"));
+		} finally {
+			recording.close();
+		}
+	}
+
+	private static List<RecordedEvent> read(Recording recording)
+			throws IOException {
+		File file = File.createTempFile("durationformatter", ".jfr");
+		try {
+			recording.dump(file.toPath());
+			return RecordingFile.readAllEvents(file.toPath());
+		} finally {
+			file.delete();
+		}
+	}
+
+}
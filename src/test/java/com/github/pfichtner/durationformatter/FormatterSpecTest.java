@@ -0,0 +1,144 @@
+package com.github.pfichtner.durationformatter;
+
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.LEADING;
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.TRAILING;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+import com.github.pfichtner.durationformatter.DurationFormatter.FormatterSpec;
+
+public class FormatterSpecTest {
+
+	private static final long[] VALUES = new long[] { 0, 1, 499, 500, 59999,
+			3600000, 86399999, 123456789, DAYS.toMillis(33) + 1 };
+
+	@Test
+	public void testEqualsBuilder() {
+		Builder builder = Builder.SYMBOLS.maximum(DAYS).minimum(SECONDS)
+				.separator(", ").symbol(HOURS, "hrs")
+				.symbolChoice(MINUTES, "minute", "minutes")
+				.valueSymbolSeparator(" ").suppressZeros(LEADING, TRAILING)
+				.maximumAmountOfUnitsToShow(2).round(false);
+		DurationFormatter spec = new FormatterSpec(Builder.SYMBOLS)
+				.maximum(DAYS).minimum(SECONDS).separator(", ")
+				.symbol(HOURS, "hrs")
+				.symbolChoice(MINUTES, "minute", "minutes")
+				.valueSymbolSeparator(" ").suppressZeros(LEADING, TRAILING)
+				.maximumAmountOfUnitsToShow(2).round(false).build();
+		DurationFormatter expected = builder.build();
+		for (long value : VALUES) {
+			assertEquals(expected.formatMillis(value), spec.formatMillis(value));
+		}
+	}
+
+	@Test
+	public void testModifyingAfterBuildDoesNotChangeFormatterBuilt() {
+		FormatterSpec spec = new FormatterSpec().useOnly(MINUTES);
+		DurationFormatter minutes = spec.build();
+		DurationFormatter symbol = spec.symbol(MINUTES, "m").build();
+		DurationFormatter millis = spec.useOnly(MILLISECONDS).build();
+		assertEquals("02", minutes.format(2, MINUTES));
+		assertEquals("2m", symbol.format(2, MINUTES));
+		assertEquals("120000", millis.format(2, MINUTES));
+	}
+
+	@Test
+	public void testBaseBuilderIsNotModified() {
+		Builder base = Builder.DIGITS;
+		FormatterSpec spec = new FormatterSpec(base).symbol(SECONDS, "s")
+				.separator("|");
+		assertEquals("00|00|3s", spec.build().format(3, SECONDS));
+		assertEquals("00:00:03", base.build().format(3, SECONDS));
+		assertEquals("00|00|3s", spec.toBuilder().build().format(3, SECONDS));
+		spec.valueSymbolSeparator(" ");
+		assertEquals("00|00|3s", spec.toBuilder().valueSymbolSeparator("")
+				.build().format(3, SECONDS));
+		assertEquals("00|00|3 s", spec.build().format(3, SECONDS));
+	}
+
+	@Test
+	public void testBuilderDoesNotShareModifiedFormatGenerators() {
+		Builder base = Builder.DIGITS.separator(" ");
+		Builder symbols = base.symbol(SECONDS, "s");
+		assertEquals("00 00 03", base.build().format(3, SECONDS));
+		assertEquals("00 00 3s", symbols.build().format(3, SECONDS));
+		assertEquals("00 00 3 s", symbols.valueSymbolSeparator(" ").build()
+				.format(3, SECONDS));
+		assertEquals("00 00 3s", symbols.build().format(3, SECONDS));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testVerifyChecksSamplingInterval() {
+		new FormatterSpec().verify(0, null);
+	}
+
+	@Test
+	public void testAlternatingDefaultLocales() {
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		Locale thai = Locale.forLanguageTag("th-TH-u-nu-thai");
+		try {
+			String[] outputs = new String[2];
+			for (int i = 0; i < 6; i++) {
+				Locale.setDefault(Locale.Category.FORMAT, i % 2 == 0 ? Locale.US
+						: thai);
+				String output = new FormatterSpec(Builder.SYMBOLS)
+						.symbolChoice(MINUTES, "minute", "minutes").build()
+						.format(3723, SECONDS);
+				if (outputs[i % 2] == null) {
+					outputs[i % 2] = output;
+				}
+				assertEquals(outputs[i % 2], output);
+			}
+			assertEquals("1h 2minutes 3s", outputs[0]);
+			assertFalse(outputs[0].equals(outputs[1]));
+		} finally {
+			Locale.setDefault(Locale.Category.FORMAT, locale);
+		}
+	}
+
+	@Test
+	public void testFormatsCreatedLaterUseLocaleOfBuild()
+			throws InterruptedException {
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		Locale thai = Locale.forLanguageTag("th-TH-u-nu-thai");
+		try {
+			Locale.setDefault(Locale.Category.FORMAT, thai);
+			final DurationFormatter formatter = Builder.SYMBOLS
+					.engine(Engine.REFERENCE)
+					.symbolChoice(MINUTES, "minute", "minutes").build();
+			final String expected = formatter.format(3723, SECONDS);
+			Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+			// threads of other stripes create their Formats now
+			final String[] outputs = new String[8];
+			Thread[] threads = new Thread[outputs.length];
+			for (int i = 0; i < threads.length; i++) {
+				final int idx = i;
+				threads[i] = new Thread() {
+					@Override
+					public void run() {
+						outputs[idx] = formatter.format(3723, SECONDS);
+					}
+				};
+				threads[i].start();
+			}
+			for (int i = 0; i < threads.length; i++) {
+				threads[i].join();
+				assertEquals(expected, outputs[i]);
+			}
+		} finally {
+			Locale.setDefault(Locale.Category.FORMAT, locale);
+		}
+	}
+
+}
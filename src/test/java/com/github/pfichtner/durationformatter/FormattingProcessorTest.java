@@ -0,0 +1,151 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.Flow.Publisher;
+import com.github.pfichtner.durationformatter.Flow.Subscriber;
+import com.github.pfichtner.durationformatter.Flow.Subscription;
+import com.github.pfichtner.durationformatter.FormattingProcessor.Value;
+
+public class FormattingProcessorTest {
+
+	private static class RangePublisher implements Publisher<Value> {
+
+		private final int count;
+		private long requested;
+		private volatile int emitted;
+
+		public RangePublisher(int count) {
+			this.count = count;
+		}
+
+		public void subscribe(final Subscriber<? super Value> subscriber) {
+			subscriber.onSubscribe(new Subscription() {
+
+				private int next;
+				private boolean emitting;
+
+				public synchronized void request(long n) {
+					RangePublisher.this.requested += n;
+					if (this.emitting) {
+						return;
+					}
+					this.emitting = true;
+					while (RangePublisher.this.requested > 0
+							&& this.next < RangePublisher.this.count) {
+						RangePublisher.this.requested--;
+						RangePublisher.this.emitted++;
+						subscriber.onNext(Value.of(this.next++, SECONDS));
+					}
+					if (this.next == RangePublisher.this.count) {
+						this.next++;
+						subscriber.onComplete();
+					}
+					this.emitting = false;
+				}
+
+				public void cancel() {
+					// noop
+				}
+
+			});
+		}
+
+	}
+
+	private static class CollectingSubscriber implements Subscriber<String> {
+
+		private final List<String> items = new ArrayList<String>();
+		private final CountDownLatch done = new CountDownLatch(1);
+		/**
+		 * counted down for each item of the initial request
+		 */
+		private final CountDownLatch received;
+		private final long initialRequest;
+		private Subscription subscription;
+
+		public CollectingSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+			this.received = new CountDownLatch((int) Math.min(initialRequest,
+					Integer.MAX_VALUE));
+		}
+
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(this.initialRequest);
+		}
+
+		public synchronized void onNext(String item) {
+			this.items.add(item);
+			this.received.countDown();
+		}
+
+		public void onError(Throwable throwable) {
+			this.done.countDown();
+		}
+
+		public void onComplete() {
+			this.done.countDown();
+		}
+
+		public synchronized List<String> getItems() {
+			return new ArrayList<String>(this.items);
+		}
+
+	}
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testOrderIsPreserved() throws InterruptedException {
+		int count = 10000;
+		FormattingProcessor processor = new FormattingProcessor(
+				DurationFormatter.DIGITS, this.executor, 16, 64);
+		CollectingSubscriber subscriber = new CollectingSubscriber(
+				Long.MAX_VALUE);
+		processor.subscribe(subscriber);
+		new RangePublisher(count).subscribe(processor);
+		assertTrue(subscriber.done.await(10, SECONDS));
+		List<String> items = subscriber.getItems();
+		assertEquals(count, items.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals(DurationFormatter.DIGITS.format(i, SECONDS),
+					items.get(i));
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws InterruptedException {
+		FormattingProcessor processor = new FormattingProcessor(
+				DurationFormatter.DIGITS, this.executor, 4, 8);
+		CollectingSubscriber subscriber = new CollectingSubscriber(3);
+		processor.subscribe(subscriber);
+		RangePublisher publisher = new RangePublisher(100);
+		publisher.subscribe(processor);
+		assertTrue(subscriber.received.await(10, SECONDS));
+		assertEquals(3, subscriber.getItems().size());
+		// not more than bufferSize requested from upstream
+		assertEquals(8, publisher.emitted);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.done.await(10, SECONDS));
+		assertEquals(100, subscriber.getItems().size());
+	}
+
+}
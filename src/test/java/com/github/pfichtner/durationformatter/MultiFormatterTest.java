@@ -0,0 +1,99 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+import com.github.pfichtner.durationformatter.DurationFormatter.ExplainListener;
+
+public class MultiFormatterTest {
+
+	private final DurationFormatter[] formatters = new DurationFormatter[] {
+			Builder.DIGITS.build(),
+			Builder.SYMBOLS.build(),
+			Builder.SYMBOLS.minimum(MILLISECONDS).maximum(MINUTES)
+					.maximumAmountOfUnitsToShow(1).separator("").build(),
+			Builder.SYMBOLS.engine(Engine.FAST).build(),
+			Builder.DIGITS.suppressZeros(DurationFormatter.SuppressZeros.LEADING)
+					.build(), new DurationFormatter() {
+
+				public String formatMillis(long value) {
+					return format(value, MILLISECONDS);
+				}
+
+				public String format(long value, TimeUnit timeUnit) {
+					return String.valueOf(timeUnit.toMillis(value));
+				}
+
+			} };
+
+	@Test
+	public void testEqualsSingleFormatters() {
+		MultiFormatter multiFormatter = new MultiFormatter(this.formatters);
+		assertEquals(this.formatters.length, multiFormatter.size());
+		long[] values = new long[] { 0, 1, 499, 500, 59999, 60000, 3599999,
+				3600000, 86399999, 123456789, -1, Long.MAX_VALUE };
+		for (TimeUnit timeUnit : new TimeUnit[] { NANOSECONDS, MILLISECONDS,
+				SECONDS }) {
+			for (long value : values) {
+				String[] outputs = multiFormatter.format(value, timeUnit);
+				for (int i = 0; i < outputs.length; i++) {
+					assertEquals(this.formatters[i].format(value, timeUnit),
+							outputs[i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFormatToAppends() {
+		MultiFormatter multiFormatter = new MultiFormatter(
+				Builder.DIGITS.build(), Builder.SYMBOLS.build());
+		StringBuilder[] sbs = new StringBuilder[] {
+				new StringBuilder("log: "), new StringBuilder("ui: ") };
+		multiFormatter.formatTo(sbs, 3723, SECONDS);
+		assertEquals("log: 01:02:03", sbs[0].toString());
+		assertEquals("ui: 1h 2min 3s", sbs[1].toString());
+	}
+
+	@Test
+	public void testExplainingFormattersDoNotShareStrategies() {
+		final AtomicInteger begins = new AtomicInteger();
+		ExplainListener listener = new ExplainListener() {
+
+			public void begin(TimeValues values) {
+				begins.incrementAndGet();
+			}
+
+			public void step(String strategy, long elapsedNanos,
+					TimeValues values) {
+				// counting calls only
+			}
+
+		};
+		// same strategy configuration, the first one does not explain
+		MultiFormatter multiFormatter = new MultiFormatter(
+				Builder.DIGITS.build(), Builder.DIGITS.explain(listener)
+						.build(), Builder.DIGITS.explain(listener).build());
+		String[] outputs = multiFormatter.format(3723, SECONDS);
+		assertEquals("01:02:03", outputs[1]);
+		assertEquals("01:02:03", outputs[2]);
+		assertEquals(2, begins.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongAmountOfStringBuilders() {
+		new MultiFormatter(Builder.DIGITS.build()).formatTo(
+				new StringBuilder[2], 1, SECONDS);
+	}
+
+}
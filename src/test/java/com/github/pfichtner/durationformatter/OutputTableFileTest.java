@@ -0,0 +1,119 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+
+public class OutputTableFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Builder builder = Builder.SYMBOLS.minimum(SECONDS)
+			.maximum(MINUTES).engine(Engine.FAST);
+
+	@Test
+	public void testStoreAndLoad() {
+		File directory = this.folder.getRoot();
+		String[] outputs = new String[] { "a", "a", "b", "ä", "ä", "c" };
+		OutputTableFile.store(directory, "fp", outputs);
+		OutputTableFile file = OutputTableFile.load(directory, "fp",
+				outputs.length);
+		assertEquals(outputs.length, file.length());
+		// lookups in any order decode the outputs from the mapping
+		for (int i = outputs.length - 1; i >= 0; i--) {
+			assertEquals(outputs[i], file.get(i));
+		}
+		assertSame(file.get(3), file.get(4));
+		assertNull(OutputTableFile.load(directory, "other", outputs.length));
+		assertNull(OutputTableFile.load(directory, "fp", outputs.length + 1));
+	}
+
+	@Test
+	public void testCorruptFileIsIgnored() throws IOException {
+		File directory = this.folder.getRoot();
+		String[] outputs = new String[] { "a", "b", "c" };
+		OutputTableFile.store(directory, "fp", outputs);
+		File file = OutputTableFile.file(directory, "fp");
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(raf.length() - 10);
+			raf.write('x');
+		} finally {
+			raf.close();
+		}
+		assertNull(OutputTableFile.load(directory, "fp", outputs.length));
+
+		raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(5);
+		} finally {
+			raf.close();
+		}
+		assertNull(OutputTableFile.load(directory, "fp", outputs.length));
+	}
+
+	@Test
+	public void testBuilderWritesAndReadsFile() throws IOException {
+		File directory = this.folder.getRoot();
+		DurationFormatter computed = this.builder.build();
+		Builder persisting = this.builder.precomputeDirectory(directory);
+		assertEqualOutputs(computed, persisting.build());
+		File[] files = directory.listFiles();
+		assertEquals(1, files.length);
+		long length = files[0].length();
+		assertTrue(length > 0);
+
+		// loaded from the file (not rewritten)
+		assertTrue(files[0].setLastModified(1000));
+		assertEqualOutputs(computed, persisting.build());
+		assertEquals(1, directory.listFiles().length);
+		assertEquals(1000, files[0].lastModified());
+
+		// other configurations use other files
+		assertEqualOutputs(this.builder.separator("").build(), persisting
+				.separator("").build());
+		assertEquals(2, directory.listFiles().length);
+
+		// corrupt files are rewritten
+		RandomAccessFile raf = new RandomAccessFile(files[0], "rw");
+		try {
+			raf.setLength(length / 2);
+		} finally {
+			raf.close();
+		}
+		assertEqualOutputs(computed, persisting.build());
+		assertEquals(length, files[0].length());
+	}
+
+	@Test
+	public void testUnwritableDirectoryFallsBack() {
+		File directory = new File(this.folder.getRoot(), "missing");
+		assertEqualOutputs(this.builder.build(),
+				this.builder.precomputeDirectory(directory).build());
+	}
+
+	private static void assertEqualOutputs(DurationFormatter expected,
+			DurationFormatter actual) {
+		for (long value = 0; value < 2 * 60 * 60 * 1000; value += 499) {
+			assertEquals(expected.format(value, MILLISECONDS),
+					actual.format(value, MILLISECONDS));
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class StopwatchTest {
+
+	private static class ManualStopwatch extends Stopwatch {
+
+		private long now;
+
+		public ManualStopwatch(long now) {
+			super(1);
+			this.now = now;
+		}
+
+		ManualStopwatch advance(long nanos) {
+			this.now += nanos;
+			return this;
+		}
+
+		@Override
+		protected long nanoTime() {
+			return this.now;
+		}
+
+	}
+
+	private final DurationFormatter df = DurationFormatter.SYMBOLS;
+
+	@Test
+	public void testLapsAndElapsed() {
+		ManualStopwatch stopwatch = new ManualStopwatch(42);
+		stopwatch.start();
+		assertEquals(SECONDS.toNanos(1),
+				stopwatch.advance(SECONDS.toNanos(1)).lap());
+		assertEquals(SECONDS.toNanos(2),
+				stopwatch.advance(SECONDS.toNanos(2)).lap());
+		assertEquals(MILLISECONDS.toNanos(500),
+				stopwatch.advance(MILLISECONDS.toNanos(500)).lap());
+		assertEquals(3, stopwatch.laps());
+		assertEquals(MILLISECONDS.toNanos(3500), stopwatch.elapsedNanos());
+
+		stopwatch.advance(SECONDS.toNanos(60)).stop();
+		stopwatch.advance(SECONDS.toNanos(60));
+		assertEquals("0h 1min 4s",
+				stopwatch.formatElapsedTo(new StringBuilder(), this.df)
+						.toString());
+		assertEquals("0h 0min 2s",
+				stopwatch.formatLapTo(new StringBuilder(), this.df, 1)
+						.toString());
+		assertEquals("0h 0min 1s | 0h 0min 2s | 0h 0min 1s", stopwatch
+				.formatLapsTo(new StringBuilder(), this.df, " | ").toString());
+	}
+
+	@Test
+	public void testNanoTimeOverflow() {
+		ManualStopwatch stopwatch = new ManualStopwatch(Long.MAX_VALUE - 10);
+		stopwatch.start();
+		assertEquals(20, stopwatch.advance(20).lap());
+		assertEquals(25, stopwatch.advance(5).stop());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testLapWithoutStart() {
+		new Stopwatch().lap();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testUnknownLap() {
+		new Stopwatch().start().lapNanos(0);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.github.pfichtner.durationformatter;
+
+import static com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros.LEADING;
+import static com.github.pfichtner.durationformatter.TimeValueAdder.get;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+
+public class StrategyProfileTest {
+
+	private static final Builder LIMITED = Builder.SYMBOLS.maximum(DAYS)
+			.minimum(SECONDS).suppressZeros(LEADING)
+			.maximumAmountOfUnitsToShow(2);
+
+	@Test
+	public void testTraceRecordsEachStep() {
+		StrategyTrace trace = new StrategyTrace();
+		DurationFormatter df = LIMITED.explain(trace).build();
+		assertEquals("3d 13h", df.formatMillis(get(3, DAYS).and(12, HOURS)
+				.and(31, MINUTES).as(MILLISECONDS)));
+		String[] lines = trace.toString().split("\n");
+		String[] steps = new String[] { "Decompose",
+				"SetUnusedTimeUnitsInvisible", "PollFromLeft",
+				"RemoveLeadingZeros", "Limit", "Rounding", "PollFromLeft",
+				"SetAtLeastOneBucketVisible" };
+		assertEquals(steps.length, lines.length);
+		for (int i = 0; i < steps.length; i++) {
+			assertTrue(lines[i], lines[i].startsWith(steps[i] + (i == 0 ? ": "
+					: " (")));
+		}
+		assertEquals("Decompose: DAYS=3 HOURS=12 MINUTES=31 SECONDS=0 "
+				+ "MILLISECONDS=0 MICROSECONDS=0 NANOSECONDS=0", lines[0]);
+		assertTrue(lines[7], lines[7].endsWith("ns): DAYS=3 HOURS=13 "
+				+ "(MINUTES=1) (SECONDS=0) (MILLISECONDS=0) "
+				+ "(MICROSECONDS=0) (NANOSECONDS=0)"));
+		assertEquals("", trace.clear().toString());
+	}
+
+	@Test
+	public void testExplainingDoesNotChangeOutput() {
+		StrategyTrace trace = new StrategyTrace();
+		for (Builder builder : new Builder[] { LIMITED,
+				LIMITED.engine(Engine.FAST), Builder.DIGITS }) {
+			DurationFormatter plain = builder.build();
+			DurationFormatter explained = builder.explain(trace).build();
+			for (long value : new long[] { 0, 499, 500, 59999, 3600000,
+					DAYS.toMillis(3) + 1, -1 }) {
+				trace.clear();
+				assertEquals(plain.formatMillis(value),
+						explained.formatMillis(value));
+				// the shortcuts of the FAST engine are disabled
+				assertTrue(trace.toString().startsWith("Decompose: "));
+			}
+		}
+	}
+
+	@Test
+	public void testProfileAggregatesSteps() throws IOException {
+		StrategyProfile profile = new StrategyProfile();
+		DurationFormatter df = LIMITED.explain(profile).build();
+		for (int i = 0; i < 100; i++) {
+			df.format(i, MINUTES);
+		}
+		assertEquals(100, profile.calls("SetUnusedTimeUnitsInvisible"));
+		assertEquals(200, profile.calls("PollFromLeft"));
+		assertEquals(100, profile.calls("Rounding"));
+		assertEquals(0, profile.calls("RemoveTrailingZeros"));
+		assertTrue(profile.elapsedNanos("Limit") >= 0);
+		String report = profile.appendTo(new StringBuilder()).toString();
+		assertTrue(report, report.startsWith("SetUnusedTimeUnitsInvisible: "
+				+ "calls=100, total="));
+		assertEquals(6, report.split("\n").length);
+		profile.reset();
+		assertEquals(0, profile.calls("PollFromLeft"));
+		assertEquals("", profile.toString());
+	}
+
+}
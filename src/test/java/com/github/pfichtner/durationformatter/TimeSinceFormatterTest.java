@@ -0,0 +1,166 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+public class TimeSinceFormatterTest {
+
+	private static class FakeClockFormatter extends TimeSinceFormatter {
+
+		private long time;
+
+		FakeClockFormatter(Builder builder, int cacheSize) {
+			super(builder, 1, HOURS, cacheSize);
+		}
+
+		void setTime(long time) {
+			this.time = time;
+			tick();
+		}
+
+		@Override
+		protected long currentTimeMillis() {
+			return this.time;
+		}
+
+	}
+
+	private FakeClockFormatter formatter;
+
+	@After
+	public void close() {
+		if (this.formatter != null) {
+			this.formatter.close();
+		}
+	}
+
+	@Test
+	public void testFormatsElapsedTimeOfCoarseClock() {
+		this.formatter = new FakeClockFormatter(Builder.DIGITS, 16);
+		long now = DAYS.toMillis(20000);
+		this.formatter.setTime(now);
+		assertEquals(now, this.formatter.now());
+		assertEquals("01:02:03", this.formatter.format(now
+				- SECONDS.toMillis(3723)));
+		assertEquals("00:00:00", this.formatter.format(now + 5000));
+		assertEquals("up 00:00:01",
+				this.formatter.formatTo(new StringBuilder("up "), now - 1499)
+						.toString());
+	}
+
+	@Test
+	public void testEqualsFormatterForAllElapsedValues() {
+		Builder[] builders = new Builder[] {
+				Builder.DIGITS,
+				Builder.DIGITS.round(false),
+				Builder.SYMBOLS.maximum(DAYS).minimum(SECONDS)
+						.suppressZeros(SuppressZeros.LEADING)
+						.maximumAmountOfUnitsToShow(2),
+				Builder.SYMBOLS.minimum(MILLISECONDS).maximum(MINUTES) };
+		for (Builder builder : builders) {
+			DurationFormatter reference = builder.build();
+			this.formatter = new FakeClockFormatter(builder, 64);
+			long now = 1000000000000L;
+			this.formatter.setTime(now);
+			for (long elapsed = 0; elapsed < HOURS.toMillis(2); elapsed += 9973) {
+				for (long delta : new long[] { 0, 1, 499, 500, 501, 999 }) {
+					assertEquals(reference.formatMillis(elapsed + delta),
+							this.formatter.format(now - elapsed - delta));
+				}
+			}
+			this.formatter.close();
+		}
+	}
+
+	@Test
+	public void testSameQuantumSharesString() {
+		this.formatter = new FakeClockFormatter(Builder.SYMBOLS, 16);
+		this.formatter.setTime(MINUTES.toMillis(10));
+		String first = this.formatter.format(MINUTES.toMillis(5) + 100);
+		assertSame(first, this.formatter.format(MINUTES.toMillis(5) + 300));
+		assertEquals("0h 5min 0s", first);
+		this.formatter.setTime(MINUTES.toMillis(10) + 1);
+		assertSame(first, this.formatter.format(MINUTES.toMillis(5) + 100));
+	}
+
+	@Test
+	public void testClockIsUpdatedOnTick() throws InterruptedException {
+		TimeSinceFormatter formatter = new TimeSinceFormatter(Builder.DIGITS,
+				1, TimeUnit.MILLISECONDS, 8);
+		try {
+			long before = formatter.now();
+			Thread.sleep(50);
+			assertTrue(formatter.now() > before);
+		} finally {
+			formatter.close();
+		}
+	}
+
+	@Test
+	public void testFormattersShareClockAtFinestTick()
+			throws InterruptedException {
+		TimeSinceFormatter coarse = new TimeSinceFormatter(Builder.DIGITS, 1,
+				TimeUnit.HOURS, 8);
+		try {
+			assertEquals(HOURS.toMillis(1), TimeSinceFormatter.clockPeriod());
+			TimeSinceFormatter fine = new TimeSinceFormatter(Builder.DIGITS,
+					1, TimeUnit.MILLISECONDS, 8);
+			try {
+				assertEquals(1, TimeSinceFormatter.clockPeriod());
+				// the coarse formatter is ticked by the fine tick as well
+				long before = coarse.now();
+				long deadline = System.currentTimeMillis() + 10000;
+				while (coarse.now() == before
+						&& System.currentTimeMillis() < deadline) {
+					Thread.sleep(1);
+				}
+				assertTrue(coarse.now() > before);
+			} finally {
+				fine.close();
+			}
+			assertEquals(HOURS.toMillis(1), TimeSinceFormatter.clockPeriod());
+		} finally {
+			coarse.close();
+		}
+		assertEquals(0, TimeSinceFormatter.clockPeriod());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTickBelowMillisecond() {
+		new TimeSinceFormatter(Builder.DIGITS, 999, TimeUnit.MICROSECONDS, 8);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMinimumBelowMillisecond() {
+		new TimeSinceFormatter(Builder.DIGITS.minimum(TimeUnit.MICROSECONDS));
+	}
+
+	@Test
+	public void testUnclosedInstancesAreDropped() throws InterruptedException {
+		// not closed and not referenced
+		new TimeSinceFormatter(Builder.DIGITS, 1, TimeUnit.MILLISECONDS, 8);
+		assertEquals(1, TimeSinceFormatter.clockPeriod());
+		long deadline = System.currentTimeMillis() + 10000;
+		while (TimeSinceFormatter.clockPeriod() != 0
+				&& System.currentTimeMillis() < deadline) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertEquals(0, TimeSinceFormatter.clockPeriod());
+	}
+
+}
@@ -104,6 +104,18 @@ public class TimeValuesTest {
 				getString(values));
 	}
 
+	@Test
+	public void testShowWeeks() {
+		TimeValues values = new TimeValues(15, DAYS).showWeeks();
+		assertEquals("2:1:0:0:0:0:0:0", getString(values));
+		assertEquals(null, values.iterator().next().getTimeUnit());
+		values.add(DAYS.toHours(6), HOURS);
+		assertEquals("3:0:0:0:0:0:0:0", getString(values));
+		assertEquals("0:0:0:0:0:0:0", getString(values.set(15, SECONDS)
+				.add(-15, SECONDS)));
+		assertEquals("15:0:0:0:0:0:0", getString(values.set(15, DAYS)));
+	}
+
 	// -----------------------------------------------------------------------
 
 	@Test
@@ -166,4 +178,18 @@ public class TimeValuesTest {
 				.toString();
 	}
 
+	@Test
+	public void testSetReusesInstance() {
+		TimeValues values = new TimeValues().add(123, SECONDS);
+		values.getBucket(HOURS).setVisible(false);
+		assertEquals("0:0:0:0:0:0:0", getString(values.reset()));
+		for (Bucket bucket : values) {
+			assertEquals(true, bucket.isVisible());
+		}
+		assertEquals(getString(new TimeValues(DAYS.toNanos(1) + 2,
+				NANOSECONDS)), getString(values.set(DAYS.toNanos(1) + 2,
+				NANOSECONDS)));
+		assertEquals("0:0:2:3:0:0:0", getString(values.set(123, SECONDS)));
+	}
+
 }
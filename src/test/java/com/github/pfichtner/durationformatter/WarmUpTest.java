@@ -0,0 +1,65 @@
+package com.github.pfichtner.durationformatter;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.Engine;
+import com.github.pfichtner.durationformatter.DurationFormatter.MismatchListener;
+import com.github.pfichtner.durationformatter.DurationFormatter.WarmUpListener;
+
+public class WarmUpTest {
+
+	private static class RecordingListener implements WarmUpListener {
+
+		private final List<long[]> calls = new ArrayList<long[]>();
+
+		public void warmedUp(long firstCallNanos, long steadyStateNanos) {
+			this.calls.add(new long[] { firstCallNanos, steadyStateNanos });
+		}
+
+	}
+
+	@Test
+	public void testListenerIsCalledOnce() {
+		RecordingListener listener = new RecordingListener();
+		Builder builder = Builder.SYMBOLS.maximum(DAYS).engine(Engine.FAST)
+				.verify(1, new MismatchListener() {
+					public void mismatch(long value, TimeUnit timeUnit,
+							String expected, String actual) {
+						// noop
+					}
+				});
+		DurationFormatter formatter = builder.warmUp(10, listener).build();
+		assertEquals(1, listener.calls.size());
+		assertTrue(listener.calls.get(0)[0] > 0);
+		assertTrue(listener.calls.get(0)[1] > 0);
+		assertEquals(builder.build().format(3723, SECONDS),
+				formatter.format(3723, SECONDS));
+	}
+
+	@Test
+	public void testNoWarmUpByDefault() {
+		RecordingListener listener = new RecordingListener();
+		Builder.DIGITS.warmUp(0, listener).build();
+		assertEquals(0, listener.calls.size());
+	}
+
+	@Test
+	public void testSamplesCoverRange() {
+		long[] samples = WarmUp.samples(SECONDS, DAYS);
+		assertEquals(0, samples[0]);
+		assertEquals(Long.MAX_VALUE, samples[samples.length - 1]);
+		// DAYS to MILLISECONDS (neighbour of SECONDS), 5 per unit
+		assertEquals(2 + 5 * 5, samples.length);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.github.pfichtner.durationformatter.cli;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+import com.github.pfichtner.durationformatter.DurationFormatter.SuppressZeros;
+
+public class BuilderOptionsTest {
+
+	@Test
+	public void testConfigure() {
+		Builder builder = BuilderOptions.base("SYMBOLS");
+		builder = BuilderOptions.configure(builder, "--minimum", "SECONDS");
+		builder = BuilderOptions.configure(builder, "--separator", "\\t");
+		builder = BuilderOptions.configure(builder, "--suppress-zeros",
+				"LEADING, TRAILING");
+		assertEquals(
+				Builder.SYMBOLS
+						.minimum(SECONDS)
+						.separator("\t")
+						.suppressZeros(SuppressZeros.LEADING,
+								SuppressZeros.TRAILING).build()
+						.format(3600, SECONDS),
+				builder.build().format(3600, SECONDS));
+	}
+
+	@Test
+	public void testIsBuilderOption() {
+		assertTrue(BuilderOptions.isBuilderOption("--maximum-units"));
+		assertFalse(BuilderOptions.isBuilderOption("--builder"));
+		assertFalse(BuilderOptions.isBuilderOption("--port"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownBase() {
+		BuilderOptions.base("ISO");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownOption() {
+		BuilderOptions.configure(Builder.DIGITS, "--port", "7070");
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.github.pfichtner.durationformatter.flow;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow.Processor;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.SubmissionPublisher;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.FormattingProcessor;
+import com.github.pfichtner.durationformatter.FormattingProcessor.Value;
+
+public class FlowAdaptersTest {
+
+	private static class CollectingSubscriber implements Subscriber<String> {
+
+		private final List<String> items = new ArrayList<String>();
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		public void onSubscribe(Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		public synchronized void onNext(String item) {
+			this.items.add(item);
+		}
+
+		public void onError(Throwable throwable) {
+			this.done.countDown();
+		}
+
+		public void onComplete() {
+			this.done.countDown();
+		}
+
+		public synchronized List<String> getItems() {
+			return new ArrayList<String>(this.items);
+		}
+
+	}
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testFormattingProcessorBetweenJdkPublisherAndSubscriber()
+			throws Exception {
+		int count = 1000;
+		Processor<Value, String> processor = FlowAdapters
+				.toFlowProcessor(new FormattingProcessor(
+						DurationFormatter.DIGITS, this.executor, 16, 64));
+		CollectingSubscriber subscriber = new CollectingSubscriber();
+		processor.subscribe(subscriber);
+		SubmissionPublisher<Value> publisher = new SubmissionPublisher<Value>(
+				this.executor, 32);
+		publisher.subscribe(processor);
+		for (int i = 0; i < count; i++) {
+			publisher.submit(Value.of(i, SECONDS));
+		}
+		publisher.close();
+		assertTrue(subscriber.done.await(10, SECONDS));
+		List<String> items = subscriber.getItems();
+		assertEquals(count, items.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals(DurationFormatter.DIGITS.format(i, SECONDS),
+					items.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.github.pfichtner.durationformatter.server;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+
+public class DurationFormatServerTest {
+
+	private final DurationFormatter[] formatters = new DurationFormatter[] {
+			DurationFormatter.DIGITS,
+			Builder.SYMBOLS.symbol(SECONDS, "sек").build() };
+
+	private DurationFormatServer server;
+	private Thread thread;
+
+	@Before
+	public void setUp() throws IOException {
+		this.server = new DurationFormatServer(new InetSocketAddress(
+				"127.0.0.1", 0), this.formatters);
+		this.thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					DurationFormatServerTest.this.server.run();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		this.thread.start();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		this.server.close();
+		this.thread.join();
+	}
+
+	@Test
+	public void testPipelinedRequests() throws IOException {
+		Socket socket = new Socket("127.0.0.1", this.server.getLocalAddress()
+				.getPort());
+		try {
+			DataOutputStream out = new DataOutputStream(
+					socket.getOutputStream());
+			int count = 20000;
+			// more than the high water mark of responses is pipelined
+			for (int i = 0; i < count; i++) {
+				out.writeByte(i % 2);
+				out.writeByte(MILLISECONDS.ordinal());
+				out.writeLong(i * 1237L);
+			}
+			out.writeByte(2);
+			out.writeByte(MILLISECONDS.ordinal());
+			out.writeLong(0);
+			out.writeByte(0);
+			out.writeByte(42);
+			out.writeLong(0);
+			out.flush();
+
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			for (int i = 0; i < count; i++) {
+				assertEquals(this.formatters[i % 2]
+						.format(i * 1237L, MILLISECONDS), readResponse(in));
+			}
+			assertEquals(null, readResponse(in));
+			assertEquals(null, readResponse(in));
+		} finally {
+			socket.close();
+		}
+	}
+
+	@Test
+	public void testLoadGenerator() throws Exception {
+		LoadGenerator.Result result = new LoadGenerator(
+				this.server.getLocalAddress(), 2, 16, 2).run(100);
+		assertEquals(2 * 16 * 100, result.getRequests());
+		assertEquals(0, result.getErrors());
+	}
+
+	private static String readResponse(DataInputStream in) throws IOException {
+		int length = in.readUnsignedShort();
+		if (length == DurationFormatServer.ERROR) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.github.pfichtner.durationformatter.stream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+
+public class DurationJoinerTest {
+
+	/**
+	 * formats zero to an empty String
+	 */
+	private final DurationFormatter df = new DurationFormatter() {
+
+		public String formatMillis(long value) {
+			return format(value, TimeUnit.MILLISECONDS);
+		}
+
+		public String format(long value, TimeUnit timeUnit) {
+			return value == 0 ? "" : String.valueOf(value);
+		}
+
+	};
+
+	private DurationJoiner joiner(long... values) {
+		DurationJoiner joiner = new DurationJoiner(this.df, SECONDS, ",");
+		for (long value : values) {
+			joiner.add(value);
+		}
+		return joiner;
+	}
+
+	@Test
+	public void testAddAfterMerge() {
+		assertEquals("1,2,3,4,5", joiner(1).merge(joiner(2, 3)).add(4)
+				.merge(joiner(5)).toString());
+		assertEquals("2,3", joiner().merge(joiner(2)).add(3).toString());
+		assertEquals("1,2", joiner(1).merge(joiner()).add(2).toString());
+	}
+
+	@Test
+	public void testEmptyOutputs() {
+		assertEquals("", joiner().toString());
+		assertEquals("", joiner(0).toString());
+		assertEquals(",", joiner(0, 0).toString());
+		assertEquals(",1,", joiner(0).merge(joiner(1)).merge(joiner(0))
+				.toString());
+		assertEquals(",", joiner(0).merge(joiner()).merge(joiner(0))
+				.toString());
+	}
+
+	@Test
+	public void testAppendTo() {
+		assertEquals(">1,2,3", joiner(1).merge(joiner(2)).add(3)
+				.appendTo(new StringBuilder(">")).toString());
+	}
+
+}
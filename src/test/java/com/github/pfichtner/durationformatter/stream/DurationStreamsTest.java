@@ -0,0 +1,48 @@
+package com.github.pfichtner.durationformatter.stream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.joining;
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+
+public class DurationStreamsTest {
+
+	private final DurationFormatter df = DurationFormatter.SYMBOLS;
+
+	private String expected(long count) {
+		return LongStream.range(0, count)
+				.mapToObj(v -> this.df.format(v, SECONDS))
+				.collect(joining(", "));
+	}
+
+	@Test
+	public void testJoining() {
+		assertEquals(expected(1000), LongStream.range(0, 1000).boxed()
+				.collect(DurationStreams.joining(this.df, SECONDS, ", ")));
+		assertEquals(expected(100000), LongStream.range(0, 100000).boxed()
+				.parallel()
+				.collect(DurationStreams.joining(this.df, SECONDS, ", ")));
+	}
+
+	@Test
+	public void testJoinLongStream() {
+		assertEquals("", DurationStreams.join(LongStream.empty(), this.df,
+				SECONDS, ", ").toString());
+		assertEquals(expected(100000), DurationStreams.join(
+				LongStream.range(0, 100000).parallel(), this.df, SECONDS, ", ")
+				.toString());
+	}
+
+	@Test
+	public void testFormatting() {
+		assertEquals(expected(100000), LongStream.range(0, 100000).parallel()
+				.mapToObj(DurationStreams.formatting(this.df, SECONDS))
+				.collect(joining(", ")));
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.github.pfichtner.durationformatter.tool;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import com.github.pfichtner.durationformatter.DurationFormatter;
+import com.github.pfichtner.durationformatter.DurationFormatter.Builder;
+
+public class DurationFileConverterTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Test
+	public void testConvert() throws IOException, InterruptedException {
+		File input = File.createTempFile("durations", ".bin");
+		File output = File.createTempFile("durations", ".txt");
+		try {
+			int records = 1000;
+			DataOutputStream os = new DataOutputStream(new FileOutputStream(
+					input));
+			try {
+				for (int i = 0; i < records; i++) {
+					os.writeLong(i * 1001L);
+				}
+			} finally {
+				os.close();
+			}
+
+			// small chunks to have more chunks than threads
+			assertEquals(records, new DurationFileConverter(
+					DurationFormatter.SYMBOLS, MILLISECONDS, "\n",
+					ByteOrder.BIG_ENDIAN, UTF8, 3, 7).convert(input, output));
+
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < records; i++) {
+				expected.append(
+						DurationFormatter.SYMBOLS.format(i * 1001L,
+								MILLISECONDS)).append("\n");
+			}
+			assertEquals(expected.toString(), read(output));
+		} finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	@Test
+	public void testOutputLargerThanEstimated() throws IOException,
+			InterruptedException {
+		File input = File.createTempFile("durations", ".bin");
+		File output = File.createTempFile("durations", ".txt");
+		try {
+			int records = 1000;
+			DataOutputStream os = new DataOutputStream(new FileOutputStream(
+					input));
+			try {
+				for (int i = 0; i < records; i++) {
+					os.writeLong(i * 61001L);
+				}
+			} finally {
+				os.close();
+			}
+
+			// three bytes per symbol char, more than the encoder estimates
+			DurationFormatter formatter = Builder.SYMBOLS
+					.symbol(HOURS, "\u6642\u9593").symbol(MINUTES, "\u5206")
+					.symbol(SECONDS, "\u79d2").build();
+			assertEquals(records, new DurationFileConverter(formatter,
+					MILLISECONDS, "\n", ByteOrder.BIG_ENDIAN, UTF8, 3, 7)
+					.convert(input, output));
+
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < records; i++) {
+				expected.append(formatter.format(i * 61001L, MILLISECONDS))
+						.append("\n");
+			}
+			assertEquals(expected.toString(), read(output));
+		} finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testInputSizeNotMultipleOfRecordSize() throws IOException,
+			InterruptedException {
+		File input = File.createTempFile("durations", ".bin");
+		File output = File.createTempFile("durations", ".txt");
+		try {
+			FileOutputStream os = new FileOutputStream(input);
+			try {
+				os.write(new byte[9]);
+			} finally {
+				os.close();
+			}
+			new DurationFileConverter(DurationFormatter.DIGITS, SECONDS, "\n",
+					ByteOrder.BIG_ENDIAN, UTF8, 1, 1).convert(input, output);
+		} finally {
+			input.delete();
+			output.delete();
+		}
+	}
+
+	private static String read(File file) throws IOException {
+		Reader reader = new InputStreamReader(new FileInputStream(file), UTF8);
+		try {
+			StringBuilder sb = new StringBuilder();
+			char[] buffer = new char[4096];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, read);
+			}
+			return sb.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+}